@@ -55,6 +55,35 @@ abstract class Generator {
     return type;
   }
 
+  /**
+   * The Order By iterator for an ordering value that may have the types given. A value that can
+   * only be one of the primitive ordering types gets an iterator that stores it unboxed.
+   */
+  static Class<?> getOrderByIterator(List<Class<Object>> types) {
+    Class<?> order_type = getOrderByType(types);
+    if (order_type == long.class) {
+      return IntOrderByIterator.class;
+    }
+    if (order_type == double.class) {
+      return FloatOrderByIterator.class;
+    }
+    if (order_type == Stringish.class) {
+      return StrOrderByIterator.class;
+    }
+    return OrderByIterator.class;
+  }
+
+  /** The parameter type of the setupReturn method of {@link #getOrderByIterator(List)}. */
+  static Class<?> getOrderByType(List<Class<Object>> types) {
+    if (types.size() == 1) {
+      Class<?> type = types.get(0);
+      if (type == long.class || type == double.class || type == Stringish.class) {
+        return type;
+      }
+    }
+    return Comparable.class;
+  }
+
   public static boolean isNumeric(Class<?> type) {
     return type == double.class || type == long.class;
   }
@@ -124,6 +153,15 @@ abstract class Generator {
 
   private int paths;
 
+  /** The names for the lookup sites used by this class, by the static field holding the site. */
+  private final Map<String, String[]> lookup_sites = new HashMap<String, String[]>();
+
+  /** The names overridden by the instantiations in this class, by the static field holding them. */
+  private final Map<String, String[]> override_names = new HashMap<String, String[]>();
+
+  /** The static field holding each string literal used by this class, by its text. */
+  private final Map<String, String> string_literals = new HashMap<String, String>();
+
   /** A counter for producing unique result consumers names. */
   private int result_consumer;
 
@@ -590,6 +628,34 @@ abstract class Generator {
       entry_point.visitMaxs(0, 0);
       entry_point.visitEnd();
     }
+    if (lookup_sites.size() > 0 || override_names.size() > 0 || string_literals.size() > 0) {
+      MethodVisitor init_builder =
+          type_builder.visitMethod(Opcodes.ACC_STATIC, "<clinit>", "()V", null, null);
+      init_builder.visitCode();
+      for (Entry<String, String[]> entry : lookup_sites.entrySet()) {
+        init_builder.visitTypeInsn(Opcodes.NEW, getInternalName(LookupSite.class));
+        init_builder.visitInsn(Opcodes.DUP);
+        loadNames(init_builder, entry.getValue());
+        visitMethod(LookupSite.class.getConstructor(String[].class), init_builder);
+        init_builder.visitFieldInsn(
+            Opcodes.PUTSTATIC, class_name, entry.getKey(), getDescriptor(LookupSite.class));
+      }
+      for (Entry<String, String[]> entry : override_names.entrySet()) {
+        loadNames(init_builder, entry.getValue());
+        visitMethod(Template.class.getMethod("overrideNames", String[].class), init_builder);
+        init_builder.visitFieldInsn(
+            Opcodes.PUTSTATIC, class_name, entry.getKey(), getDescriptor(Set.class));
+      }
+      for (Entry<String, String> entry : string_literals.entrySet()) {
+        init_builder.visitLdcInsn(entry.getKey());
+        visitMethod(Stringish.class.getMethod("intern", String.class), init_builder);
+        init_builder.visitFieldInsn(
+            Opcodes.PUTSTATIC, class_name, entry.getValue(), getDescriptor(Stringish.class));
+      }
+      init_builder.visitInsn(Opcodes.RETURN);
+      init_builder.visitMaxs(0, 0);
+      init_builder.visitEnd();
+    }
     int num_dispatch_routines = entry_points.size() / MAX_DISPATCHES;
     for (int dispatch = 0; dispatch <= num_dispatch_routines; dispatch++) {
       Class<?> io_type = (dispatch == 0) ? null : int.class;
@@ -872,7 +938,7 @@ abstract class Generator {
   public void loadReboxed(LoadableValue source, Class<?> target_type) throws Exception {
     source.load(builder);
     if (!target_type.isAssignableFrom(source.getBackingType())) {
-      if (target_type == Object.class) {
+      if (target_type == Object.class || target_type == Comparable.class) {
         if (source.getBackingType() == boolean.class
             || source.getBackingType() == double.class
             || source.getBackingType() == long.class) {
@@ -881,6 +947,8 @@ abstract class Generator {
               getInternalName(getBoxedType(source.getBackingType())),
               "valueOf",
               makeSignature(getBoxedType(source.getBackingType()), source.getBackingType()));
+        } else if (target_type != Object.class) {
+          builder.visitTypeInsn(Opcodes.CHECKCAST, getInternalName(target_type));
         }
       } else {
         if (source.getBackingType() == boolean.class
@@ -892,6 +960,15 @@ abstract class Generator {
               getInternalName(getBoxedType(source.getBackingType())),
               target_type.getSimpleName() + "Value",
               makeSignature(target_type));
+        } else if (target_type == boolean.class
+            || target_type == double.class
+            || target_type == long.class) {
+          builder.visitTypeInsn(Opcodes.CHECKCAST, getInternalName(getBoxedType(target_type)));
+          builder.visitMethodInsn(
+              Opcodes.INVOKEVIRTUAL,
+              getInternalName(getBoxedType(target_type)),
+              target_type.getSimpleName() + "Value",
+              makeSignature(target_type));
         } else {
           builder.visitTypeInsn(Opcodes.CHECKCAST, getInternalName(target_type));
         }
@@ -899,6 +976,85 @@ abstract class Generator {
     }
   }
 
+  /**
+   * Load a new lookup site for names known at compile time. Each call creates a separate site, so
+   * each place in the code keeps its own cache.
+   */
+  public void loadLookupSite(String... names) {
+    String field = "lookup_site$" + lookup_sites.size();
+    lookup_sites.put(field, names);
+    type_builder
+        .visitField(
+            Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL,
+            field,
+            getDescriptor(LookupSite.class),
+            null,
+            null)
+        .visitEnd();
+    builder.visitFieldInsn(Opcodes.GETSTATIC, class_name, field, getDescriptor(LookupSite.class));
+  }
+
+  /** Load an array of names known at compile time. */
+  private static void loadNames(MethodVisitor builder, String[] names) {
+    builder.visitIntInsn(Opcodes.SIPUSH, names.length);
+    builder.visitTypeInsn(Opcodes.ANEWARRAY, getInternalName(String.class));
+    for (int it = 0; it < names.length; it++) {
+      builder.visitInsn(Opcodes.DUP);
+      builder.visitIntInsn(Opcodes.SIPUSH, it);
+      builder.visitLdcInsn(names[it]);
+      builder.visitInsn(Opcodes.AASTORE);
+    }
+  }
+
+  /**
+   * Load the set of names overridden by an instantiation, which selects the shape of the new frame.
+   * The set is created once, when the class is initialised.
+   */
+  public void loadOverrideNames(List<String> names) {
+    String field = "override_names$" + override_names.size();
+    override_names.put(field, names.toArray(new String[names.size()]));
+    type_builder
+        .visitField(
+            Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL,
+            field,
+            getDescriptor(Set.class),
+            null,
+            null)
+        .visitEnd();
+    builder.visitFieldInsn(Opcodes.GETSTATIC, class_name, field, getDescriptor(Set.class));
+  }
+
+  /** Load a new lookup site for a list of names, followed by any additional names. */
+  public void loadLookupSite(List<?> prefix, String... names) {
+    String[] all_names = new String[prefix.size() + names.length];
+    for (int it = 0; it < prefix.size(); it++) {
+      all_names[it] = prefix.get(it).toString();
+    }
+    System.arraycopy(names, 0, all_names, prefix.size(), names.length);
+    loadLookupSite(all_names);
+  }
+
+  /**
+   * Load a string literal. Each distinct literal is interned once, when the class is initialised,
+   * and kept in a static field.
+   */
+  public void loadStringish(String str) {
+    String field = string_literals.get(str);
+    if (field == null) {
+      field = "string_literal$" + string_literals.size();
+      string_literals.put(str, field);
+      type_builder
+          .visitField(
+              Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL,
+              field,
+              getDescriptor(Stringish.class),
+              null,
+              null)
+          .visitEnd();
+    }
+    builder.visitFieldInsn(Opcodes.GETSTATIC, class_name, field, getDescriptor(Stringish.class));
+  }
+
   /** Load the task master in the `Run` function. */
   public void loadTaskMaster() {
     loadTaskMaster(builder);
@@ -16,6 +16,9 @@ public class MainPrinter {
     options.addOption("o", "output", true, "Write output to file instead of standard output.");
     options.addOption("t", "trace-parsing", false, "Produce a trace of the parse process.");
     options.addOption("p", "no-precomp", false, "Do not use precompiled libraries");
+    options.addOption(
+        "j", "parallel", false, "Run computations on several threads at once (experimental).");
+    options.addOption("s", "no-string-pool", false, "Do not share strings with the same text.");
     options.addOption("h", "help", false, "Show this message and exit");
     CommandLineParser cl_parser = new GnuParser();
     CommandLine result;
@@ -41,6 +44,10 @@ public class MainPrinter {
       System.exit(1);
     }
 
+    if (result.hasOption('s')) {
+      Stringish.setPooling(false);
+    }
+
     ResourcePathFinder resource_finder = new ResourcePathFinder();
     try {
       resource_finder.prependPath(
@@ -50,7 +57,11 @@ public class MainPrinter {
     }
     resource_finder.addDefaults();
     ErrorCollector collector = new ConsoleCollector();
-    ConsoleTaskMaster task_master = new ConsoleTaskMaster();
+    ConsoleReporter reporter = new ConsoleReporter();
+    TaskMaster task_master =
+        result.hasOption('j')
+            ? new ParallelConsoleTaskMaster(reporter)
+            : new ConsoleTaskMaster(reporter);
     DynamicCompiler compiler = new DynamicCompiler(collector);
     compiler.setFinder(resource_finder);
     task_master.addUriHandler(compiler);
@@ -70,7 +81,7 @@ public class MainPrinter {
             new PrintResult(task_master, computation, result.getOptionValue('o'));
         filewriter.slot();
         task_master.run();
-        task_master.reportCircularEvaluation();
+        reporter.reportCircularEvaluation(task_master);
         System.exit(filewriter.getSuccess() ? 0 : 1);
       }
     } catch (Exception e) {
@@ -113,6 +113,7 @@ public class MainREPL {
   public static void main(String[] args) {
     Options options = new Options();
     options.addOption("p", "no-precomp", false, "Do not use precompiled libraries");
+    options.addOption("s", "no-string-pool", false, "Do not share strings with the same text.");
     options.addOption("h", "help", false, "Show this message and exit");
     CommandLineParser cl_parser = new GnuParser();
     CommandLine result;
@@ -138,6 +139,9 @@ public class MainREPL {
       System.err.println("Only one Flabbergast script may be given.");
       System.exit(1);
     }
+    if (result.hasOption('s')) {
+      Stringish.setPooling(false);
+    }
     System.out.print(Ansi.ansi().a(Ansi.Attribute.RESET).fg(Ansi.Color.BLUE).toString());
     System.out.print("o_0 ");
     System.out.print(Ansi.ansi().a(Ansi.Attribute.RESET).fg(Ansi.Color.WHITE).toString());
@@ -38,31 +38,17 @@ abstract class NameInfo {
     FieldValue lookup_result =
         generator.makeField("lookup_" + getName().replace('.', '$'), Object.class);
     MethodVisitor builder = generator.getBuilder();
-    builder.visitTypeInsn(Opcodes.NEW, getInternalName(Lookup.class));
-    builder.visitInsn(Opcodes.DUP);
+    generator.loadLookupSite(getName().split("\\."));
     generator.loadTaskMaster();
     source_reference.load(builder);
-    String[] name_parts = getName().split("\\.");
-    builder.visitIntInsn(Opcodes.BIPUSH, name_parts.length);
-    builder.visitTypeInsn(Opcodes.ANEWARRAY, getInternalName(String.class));
-    for (int it = 0; it < name_parts.length; it++) {
-      builder.visitInsn(Opcodes.DUP);
-      builder.visitIntInsn(Opcodes.BIPUSH, it);
-      builder.visitLdcInsn(name_parts[it]);
-      builder.visitInsn(Opcodes.AASTORE);
-    }
     context.load(generator);
-    builder.visitMethodInsn(
-        Opcodes.INVOKESPECIAL,
-        getInternalName(Lookup.class),
-        "<init>",
-        org.objectweb.asm.Type.getConstructorDescriptor(Lookup.class.getConstructors()[0]));
     generator.generateConsumeResult(lookup_result);
     builder.visitMethodInsn(
         Opcodes.INVOKEVIRTUAL,
-        getInternalName(Lookup.class),
-        "listen",
-        Generator.makeSignature(null, ConsumeResult.class));
+        getInternalName(LookupSite.class),
+        "lookup",
+        Generator.makeSignature(
+            null, TaskMaster.class, SourceReference.class, Context.class, ConsumeResult.class));
     return lookup_result;
   }
 
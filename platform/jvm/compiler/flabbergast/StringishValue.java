@@ -17,15 +17,20 @@ class StringishValue extends LoadableValue {
     return Stringish.class;
   }
 
+  /** Load the literal from the static field the generator keeps for it. */
+  @Override
+  public void load(Generator generator) {
+    generator.loadStringish(str);
+  }
+
+  /** Intern the literal on each evaluation, for code outside the generator's own methods. */
   @Override
   public void load(MethodVisitor generator) {
-    generator.visitTypeInsn(Opcodes.NEW, getInternalName(SimpleStringish.class));
-    generator.visitInsn(Opcodes.DUP);
     generator.visitLdcInsn(str);
     generator.visitMethodInsn(
-        Opcodes.INVOKESPECIAL,
-        getInternalName(SimpleStringish.class),
-        "<init>",
-        Generator.makeSignature(null, String.class));
+        Opcodes.INVOKESTATIC,
+        getInternalName(Stringish.class),
+        "intern",
+        Generator.makeSignature(Stringish.class, String.class));
   }
 }
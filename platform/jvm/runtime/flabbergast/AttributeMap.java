@@ -0,0 +1,181 @@
+package flabbergast;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * The attributes of a frame, ordered by name.
+ *
+ * <p>Attributes are kept in parallel sorted arrays of names and values and found by binary search.
+ * Adding names in order, as lists do, only appends. Once a map is large, adding a name out of order
+ * would mean shifting too much of the array, so the map moves its attributes into a {@link
+ * TreeMap}.
+ *
+ * <p>A map may also start from a {@link FrameShape}, in which case it shares the names of the shape
+ * and a slot is absent until its value is set. Adding a name that is not in the shape gives the map
+ * its own copy of the names.
+ */
+final class AttributeMap implements Iterable<String> {
+  /** The number of attributes that will be checked by identity before searching. */
+  private static final int IDENTITY_SCAN = 8;
+
+  /** The largest map that will take names out of order before switching to a tree. */
+  private static final int MAX_UNORDERED = 64;
+
+  private static final String[] NO_KEYS = new String[0];
+  private static final Object[] NO_VALUES = new Object[0];
+
+  /** The number of slots holding a value. */
+  private int count = 0;
+
+  private String[] keys = NO_KEYS;
+  private FrameShape shape;
+  private int size = 0;
+  private TreeMap<String, Object> tree;
+  private Object[] values = NO_VALUES;
+
+  AttributeMap() {}
+
+  AttributeMap(FrameShape shape) {
+    this.shape = shape;
+    keys = shape.names();
+    size = keys.length;
+    values = new Object[size];
+  }
+
+  boolean containsKey(String name) {
+    if (tree != null) {
+      return tree.containsKey(name);
+    }
+    int index = find(name);
+    return index >= 0 && values[index] != null;
+  }
+
+  private int find(String name) {
+    return shape == null ? Arrays.binarySearch(keys, 0, size, name) : shape.indexOf(name);
+  }
+
+  /** Get a value, or null if it is absent. */
+  Object get(String name) {
+    if (tree != null) {
+      return tree.get(name);
+    }
+    int index = find(name);
+    return index < 0 ? null : values[index];
+  }
+
+  /**
+   * Get a value, or null if it is absent, by its symbol from {@link SymbolTable}. Shaped maps use
+   * the slot cached by the shape. Names added from string constants are the same object as the name
+   * of the symbol, so small maps check identity before searching.
+   */
+  Object get(int symbol) {
+    if (shape != null) {
+      int index = shape.indexOf(symbol);
+      return index < 0 ? null : values[index];
+    }
+    String name = SymbolTable.getName(symbol);
+    if (tree == null) {
+      int limit = Math.min(size, IDENTITY_SCAN);
+      for (int it = 0; it < limit; it++) {
+        if (keys[it] == name) {
+          return values[it];
+        }
+      }
+    }
+    return get(name);
+  }
+
+  /** The shape whose names this map still shares, or null. */
+  FrameShape getShape() {
+    return shape;
+  }
+
+  @Override
+  public Iterator<String> iterator() {
+    if (tree != null) {
+      return tree.keySet().iterator();
+    }
+    return new Iterator<String>() {
+      private int index = skip(0);
+
+      @Override
+      public boolean hasNext() {
+        return index < size;
+      }
+
+      @Override
+      public String next() {
+        if (index >= size) {
+          throw new NoSuchElementException();
+        }
+        String name = keys[index];
+        index = skip(index + 1);
+        return name;
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+
+      private int skip(int index) {
+        while (index < size && values[index] == null) {
+          index++;
+        }
+        return index;
+      }
+    };
+  }
+
+  /** Add a value or replace the existing value of an attribute. */
+  void put(String name, Object value) {
+    if (tree != null) {
+      tree.put(name, value);
+      return;
+    }
+    int index =
+        shape == null && (size == 0 || keys[size - 1].compareTo(name) < 0) ? -size - 1 : find(name);
+    if (index >= 0) {
+      if (values[index] == null) {
+        count++;
+      }
+      values[index] = value;
+      return;
+    }
+    index = -index - 1;
+    if (index < size && size >= MAX_UNORDERED) {
+      tree = new TreeMap<String, Object>();
+      for (int it = 0; it < size; it++) {
+        if (values[it] != null) {
+          tree.put(keys[it], values[it]);
+        }
+      }
+      tree.put(name, value);
+      keys = NO_KEYS;
+      values = NO_VALUES;
+      shape = null;
+      size = 0;
+      count = 0;
+      return;
+    }
+    if (size == keys.length || shape != null) {
+      int capacity = size < 4 ? 4 : size * 2;
+      keys = Arrays.copyOf(keys, capacity);
+      values = Arrays.copyOf(values, capacity);
+      shape = null;
+    }
+    System.arraycopy(keys, index, keys, index + 1, size - index);
+    System.arraycopy(values, index, values, index + 1, size - index);
+    keys[index] = name;
+    values[index] = value;
+    size++;
+    count++;
+  }
+
+  int size() {
+    return tree == null ? count : tree.size();
+  }
+}
@@ -2,8 +2,56 @@ package flabbergast;
 
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.RecursiveAction;
 
+/**
+ * Apply a function to every value in a frame of arguments.
+ *
+ * <p>A function that only depends on its argument may opt in to being applied in parallel by
+ * overriding {@link #isParallel()}. Long argument frames are then split into chunks computed in the
+ * current fork/join pool, so the number of threads used is bounded by that pool. The output frame
+ * is still filled in name order on the calling thread and any exceptions are reported from there,
+ * in the same order as if the function had been applied to each argument in turn.
+ */
 public abstract class BaseMapFunctionInterop<T, R> extends InterlockedLookup {
+  /** Argument frames shorter than this, and chunks of at most this many, are computed in place. */
+  private static final int PARALLEL_MAP_LENGTH = 64;
+
+  private class MapTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final int end;
+    private final Exception[] errors;
+    private final T[] inputs;
+    private final Object[] outputs;
+    private final int start;
+
+    MapTask(T[] inputs, Object[] outputs, Exception[] errors, int start, int end) {
+      this.inputs = inputs;
+      this.outputs = outputs;
+      this.errors = errors;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start <= PARALLEL_MAP_LENGTH) {
+        for (int it = start; it < end; it++) {
+          try {
+            outputs[it] = computeResult(inputs[it]);
+          } catch (Exception e) {
+            errors[it] = e;
+          }
+        }
+        return;
+      }
+      int middle = (start + end) >>> 1;
+      invokeAll(
+          new MapTask(inputs, outputs, errors, start, middle),
+          new MapTask(inputs, outputs, errors, middle, end));
+    }
+  }
+
   private final Class<T> clazz;
   protected final Frame container;
   private Map<String, T> input;
@@ -27,11 +75,47 @@ public abstract class BaseMapFunctionInterop<T, R> extends InterlockedLookup {
 
   protected abstract R computeResult(T input) throws Exception;
 
+  /**
+   * Whether {@link #computeResult(Object)} may be called for several arguments at once from other
+   * threads. This is only safe if it neither creates frames nor changes any shared state.
+   */
+  protected boolean isParallel() {
+    return false;
+  }
+
   @Override
   protected final void resolve() {
     MutableFrame output_frame = new MutableFrame(task_master, source_reference, context, self);
+    if (!isParallel() || input.size() <= PARALLEL_MAP_LENGTH) {
+      for (Entry<String, T> entry : input.entrySet()) {
+        output_frame.set(entry.getKey(), correctOutput(() -> computeResult(entry.getValue())));
+      }
+      result = output_frame;
+      return;
+    }
+    String[] names = new String[input.size()];
+    @SuppressWarnings("unchecked")
+    T[] inputs = (T[]) new Object[names.length];
+    int index = 0;
     for (Entry<String, T> entry : input.entrySet()) {
-      output_frame.set(entry.getKey(), correctOutput(() -> computeResult(entry.getValue())));
+      names[index] = entry.getKey();
+      inputs[index] = entry.getValue();
+      index++;
+    }
+    Object[] outputs = new Object[names.length];
+    Exception[] errors = new Exception[names.length];
+    new MapTask(inputs, outputs, errors, 0, names.length).invoke();
+    for (int it = 0; it < names.length; it++) {
+      int item = it;
+      output_frame.set(
+          names[it],
+          correctOutput(
+              () -> {
+                if (errors[item] != null) {
+                  throw errors[item];
+                }
+                return outputs[item];
+              }));
     }
     result = output_frame;
   }
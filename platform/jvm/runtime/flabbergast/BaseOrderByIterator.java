@@ -0,0 +1,150 @@
+package flabbergast;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Iterate over the keys of several frames, ordered by a value computed for each key.
+ *
+ * <p>During setup, each key is visited in name order and its ordering value is stored by the
+ * subclass at the key's index. The indices are then sorted stably, so keys with equal values stay
+ * in name order. Large inputs are sorted in parallel.
+ */
+public abstract class BaseOrderByIterator {
+  /** Ranges at most this long are sorted by insertion. */
+  private static final int INSERTION_SORT_LENGTH = 16;
+
+  /** Ranges at least this long are split across threads. */
+  private static final int PARALLEL_SORT_LENGTH = 8192;
+
+  private class SortTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final int[] buffer;
+    private final int end;
+    private final int[] items;
+    private final int start;
+
+    SortTask(int[] items, int[] buffer, int start, int end) {
+      this.items = items;
+      this.buffer = buffer;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start < PARALLEL_SORT_LENGTH) {
+        sort(items, buffer, start, end);
+        return;
+      }
+      int middle = (start + end) >>> 1;
+      invokeAll(
+          new SortTask(items, buffer, start, middle), new SortTask(items, buffer, middle, end));
+      merge(items, buffer, start, middle, end);
+    }
+  }
+
+  private String current;
+  private final String[] names;
+  private int[] order;
+  private long position;
+
+  /** The number of keys that have been visited during setup. */
+  private int setup_count;
+
+  protected BaseOrderByIterator(Iterable<String>[] inputs) {
+    List<String> keys = new ArrayList<String>();
+    MergeIterator merge = new MergeIterator(inputs, 1, 0);
+    while (merge.next() != 0) {
+      keys.add(merge.getCurrent());
+    }
+    names = keys.toArray(new String[keys.size()]);
+  }
+
+  /** Compare the ordering values of two keys by their indices. */
+  protected abstract int compare(int left, int right);
+
+  /** The current attribute name. */
+  public String getCurrent() {
+    return current;
+  }
+
+  public Stringish getCurrentish() {
+    return new SimpleStringish(current);
+  }
+
+  /** The current attribute ordinal, 1-based per the language spec. */
+  public long getPosition() {
+    return position;
+  }
+
+  /** The index of the key visited last during setup, where its ordering value must be stored. */
+  protected final int getSetupIndex() {
+    return setup_count - 1;
+  }
+
+  /** The number of keys in the input. */
+  protected final int getSize() {
+    return names.length;
+  }
+
+  private void merge(int[] items, int[] buffer, int start, int middle, int end) {
+    if (compare(items[middle - 1], items[middle]) <= 0) {
+      return;
+    }
+    // Only the left run needs to move aside; the right run is consumed no faster than it is
+    // overwritten.
+    System.arraycopy(items, start, buffer, start, middle - start);
+    int left = start;
+    int right = middle;
+    int output = start;
+    while (left < middle && right < end) {
+      items[output++] = compare(buffer[left], items[right]) <= 0 ? buffer[left++] : items[right++];
+    }
+    System.arraycopy(buffer, left, items, output, middle - left);
+  }
+
+  public boolean next() {
+    if (order == null) {
+      order = new int[setup_count];
+      for (int it = 0; it < order.length; it++) {
+        order[it] = it;
+      }
+      new SortTask(order, new int[order.length], 0, order.length).invoke();
+    }
+    if (position < order.length) {
+      current = names[order[(int) position]];
+      position++;
+      return true;
+    }
+    return false;
+  }
+
+  public boolean setupNext() {
+    if (setup_count < names.length) {
+      current = names[setup_count++];
+      return true;
+    }
+    return false;
+  }
+
+  private void sort(int[] items, int[] buffer, int start, int end) {
+    if (end - start <= INSERTION_SORT_LENGTH) {
+      for (int it = start + 1; it < end; it++) {
+        int item = items[it];
+        int target = it;
+        while (target > start && compare(items[target - 1], item) > 0) {
+          items[target] = items[target - 1];
+          target--;
+        }
+        items[target] = item;
+      }
+      return;
+    }
+    int middle = (start + end) >>> 1;
+    sort(items, buffer, start, middle);
+    sort(items, buffer, middle, end);
+    merge(items, buffer, start, middle, end);
+  }
+}
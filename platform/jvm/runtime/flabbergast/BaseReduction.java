@@ -0,0 +1,107 @@
+package flabbergast;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Reduce the values of a frame, in name order, with an associative operation.
+ *
+ * <p>Long lists whose values can be regrouped without changing the result, such as integers, which
+ * wrap around the same way in any grouping, are split into halves that are reduced in parallel and
+ * combined in order. Any other list is reduced left to right in a single pass.
+ */
+public abstract class BaseReduction<T> extends BaseFunctionInterop<Object> {
+  /** Lists at least this long are split across threads. */
+  private static final int PARALLEL_LENGTH = 8192;
+
+  private class ReduceTask extends RecursiveTask<T> {
+    private static final long serialVersionUID = 1L;
+    private final int end;
+    private final int start;
+    private final List<T> values;
+
+    ReduceTask(List<T> values, int start, int end) {
+      this.values = values;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected T compute() {
+      if (end - start < PARALLEL_LENGTH) {
+        return fold(values, start, end);
+      }
+      int middle = (start + end) >>> 1;
+      ReduceTask right = new ReduceTask(values, middle, end);
+      right.fork();
+      T left = new ReduceTask(values, start, middle).compute();
+      return combine(left, right.join());
+    }
+  }
+
+  private final Class<T> clazz;
+  private Map<String, T> input;
+
+  protected BaseReduction(
+      Class<T> clazz,
+      TaskMaster task_master,
+      SourceReference source_ref,
+      Context context,
+      Frame self,
+      Frame container) {
+    super(task_master, source_ref, context, self, container);
+    this.clazz = clazz;
+  }
+
+  /** Whether the values can be combined in any grouping and still give the in-order result. */
+  protected abstract boolean canRegroup(List<T> values);
+
+  /** Check that an argument can be reduced before it is combined. */
+  protected void check(String name, T value) {}
+
+  /** Combine the result of reducing the values so far with the next value. */
+  protected abstract T combine(T left, T right);
+
+  @Override
+  protected final Object computeResult() throws Exception {
+    List<T> values = new ArrayList<T>(input.size());
+    for (Entry<String, T> entry : input.entrySet()) {
+      check(entry.getKey(), entry.getValue());
+      values.add(entry.getValue());
+    }
+    if (values.isEmpty()) {
+      return empty();
+    }
+    return finish(
+        values.size() >= PARALLEL_LENGTH && canRegroup(values)
+            ? new ReduceTask(values, 0, values.size()).invoke()
+            : fold(values, 0, values.size()));
+  }
+
+  /** The result when there are no arguments. */
+  protected abstract T empty();
+
+  /** Adjust the result of reducing all the arguments. */
+  protected T finish(T result) {
+    return result;
+  }
+
+  /** Combine a non-empty run of values, left to right. */
+  private T fold(List<T> values, int start, int end) {
+    T result = values.get(start);
+    for (int it = start + 1; it < end; it++) {
+      result = combine(result, values.get(it));
+    }
+    return result;
+  }
+
+  @Override
+  protected void setup() {
+    ListSink<T> args_lookup = findAll(clazz, x -> input = x);
+    args_lookup.allowDefault(false, null);
+    args_lookup.lookup("args");
+  }
+}
@@ -0,0 +1,53 @@
+package flabbergast;
+
+/**
+ * Converts between codepoint and UTF-16 positions in a string without counting from the start.
+ *
+ * <p>The UTF-16 offset of every {@link #SAMPLE}th codepoint is recorded, so a conversion only
+ * counts codepoints from the nearest sample. Strings with no surrogate pairs need no index, since
+ * the positions are the same.
+ */
+final class CodepointIndex {
+  /** The number of codepoints between samples. */
+  static final int SAMPLE = 64;
+
+  /** Build an index for a string that contains surrogate pairs. */
+  static CodepointIndex create(String str, long codepoints) {
+    int[] offsets = new int[(int) (codepoints / SAMPLE) + 1];
+    int offset = 0;
+    for (int it = 0; it < offsets.length; it++) {
+      offsets[it] = offset;
+      if (it < offsets.length - 1) {
+        offset = str.offsetByCodePoints(offset, SAMPLE);
+      }
+    }
+    return new CodepointIndex(offsets);
+  }
+
+  private final int[] offsets;
+
+  private CodepointIndex(int[] offsets) {
+    this.offsets = offsets;
+  }
+
+  /** The codepoint at a UTF-16 offset. */
+  long toCodepoint(String str, int utf16) {
+    int low = 0;
+    int high = offsets.length - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (offsets[mid] <= utf16) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return (long) low * SAMPLE + str.codePointCount(offsets[low], utf16);
+  }
+
+  /** The UTF-16 offset of a codepoint. */
+  int toUtf16(String str, long codepoint) {
+    int sample = (int) (codepoint / SAMPLE);
+    return str.offsetByCodePoints(offsets[sample], (int) (codepoint % SAMPLE));
+  }
+}
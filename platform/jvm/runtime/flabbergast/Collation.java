@@ -0,0 +1,148 @@
+package flabbergast;
+
+import java.text.CollationElementIterator;
+import java.text.Collator;
+import java.text.RuleBasedCollator;
+
+/**
+ * Compares strings in the collation order of the default locale.
+ *
+ * <p>The collator is shared; its methods are synchronised, so it is only used to build sort keys,
+ * which each string caches. Strings made only of ASCII letters and digits are compared directly
+ * from a table of their collation elements, if the locale has no contractions or expansions among
+ * those characters.
+ */
+final class Collation {
+  private static final String ALNUM =
+      "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+  private static final Collator COLLATOR = Collator.getInstance();
+
+  /**
+   * The collation element of each ASCII letter and digit, indexed by character, or null if the fast
+   * path does not give the same order as the collator.
+   */
+  private static final int[] ELEMENTS = createElements();
+
+  /** Compare two strings made only of ASCII letters and digits. */
+  static int compareAlnum(CharSequence left, CharSequence right) {
+    int length = Math.min(left.length(), right.length());
+    for (int it = 0; it < length; it++) {
+      int result =
+          Integer.compare(
+              CollationElementIterator.primaryOrder(ELEMENTS[left.charAt(it)]),
+              CollationElementIterator.primaryOrder(ELEMENTS[right.charAt(it)]));
+      if (result != 0) {
+        return result;
+      }
+    }
+    if (left.length() != right.length()) {
+      return left.length() < right.length() ? -1 : 1;
+    }
+    if (COLLATOR.getStrength() == Collator.PRIMARY) {
+      return 0;
+    }
+    for (int it = 0; it < length; it++) {
+      int result =
+          Integer.compare(
+              CollationElementIterator.secondaryOrder(ELEMENTS[left.charAt(it)]),
+              CollationElementIterator.secondaryOrder(ELEMENTS[right.charAt(it)]));
+      if (result != 0) {
+        return result;
+      }
+    }
+    if (COLLATOR.getStrength() == Collator.SECONDARY) {
+      return 0;
+    }
+    for (int it = 0; it < length; it++) {
+      int result =
+          Integer.compare(
+              CollationElementIterator.tertiaryOrder(ELEMENTS[left.charAt(it)]),
+              CollationElementIterator.tertiaryOrder(ELEMENTS[right.charAt(it)]));
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  /** Compare two sort keys produced by {@link #sortKey(String)}. */
+  static int compareKeys(byte[] left, byte[] right) {
+    int length = Math.min(left.length, right.length);
+    for (int it = 0; it < length; it++) {
+      int result = Integer.compare(left[it] & 0xFF, right[it] & 0xFF);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return Integer.compare(left.length, right.length);
+  }
+
+  private static int[] createElements() {
+    if (!(COLLATOR instanceof RuleBasedCollator)
+        || COLLATOR.getStrength() == Collator.IDENTICAL
+        || COLLATOR.getDecomposition() != Collator.NO_DECOMPOSITION) {
+      return null;
+    }
+    RuleBasedCollator collator = (RuleBasedCollator) COLLATOR;
+    int[] elements = new int[128];
+    for (int it = 0; it < ALNUM.length(); it++) {
+      int[] single = elementsOf(collator, ALNUM.substring(it, it + 1));
+      if (single.length != 1 || CollationElementIterator.primaryOrder(single[0]) == 0) {
+        return null;
+      }
+      elements[ALNUM.charAt(it)] = single[0];
+    }
+    // Any pair that does not produce the elements of its characters is a contraction.
+    for (int first = 0; first < ALNUM.length(); first++) {
+      for (int second = 0; second < ALNUM.length(); second++) {
+        int[] pair =
+            elementsOf(
+                collator, new String(new char[] {ALNUM.charAt(first), ALNUM.charAt(second)}));
+        if (pair.length != 2
+            || pair[0] != elements[ALNUM.charAt(first)]
+            || pair[1] != elements[ALNUM.charAt(second)]) {
+          return null;
+        }
+      }
+    }
+    return elements;
+  }
+
+  private static int[] elementsOf(RuleBasedCollator collator, String str) {
+    CollationElementIterator iterator = collator.getCollationElementIterator(str);
+    int[] elements = new int[str.length() + 1];
+    int count = 0;
+    int element;
+    while ((element = iterator.next()) != CollationElementIterator.NULLORDER) {
+      if (count == elements.length) {
+        return new int[0];
+      }
+      elements[count++] = element;
+    }
+    int[] result = new int[count];
+    System.arraycopy(elements, 0, result, 0, count);
+    return result;
+  }
+
+  /** Whether a string can be compared with {@link #compareAlnum(CharSequence, CharSequence)}. */
+  static boolean isAlnum(CharSequence str) {
+    if (ELEMENTS == null) {
+      return false;
+    }
+    for (int it = 0; it < str.length(); it++) {
+      char c = str.charAt(it);
+      if (c >= 128 || ELEMENTS[c] == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Produce a key that sorts the same way the collator orders the string. */
+  static byte[] sortKey(String str) {
+    return COLLATOR.getCollationKey(str).toByteArray();
+  }
+
+  private Collation() {}
+}
@@ -1,22 +1,132 @@
 package flabbergast;
 
 import flabbergast.RamblingIterator.GetNext;
+import java.io.IOException;
 import java.util.Stack;
 
+/**
+ * The concatenation of two strings, as a node in a rope.
+ *
+ * <p>Ropes built with {@link Stringish#concat(Stringish, Stringish)} are kept balanced, so that
+ * repeatedly appending to the same string does not produce a tree as deep as the number of
+ * appends. Short pieces are copied into a single string rather than given their own node.
+ */
 public class ConcatStringish extends Stringish {
-  private long chars;
-  private Stringish head;
-  private Stringish tail;
+  /** Pieces whose combined length, in UTF-16 units, is at most this are joined into one string. */
+  static final int FLATTEN_LENGTH = 256;
 
+  private static Stringish balance(Stringish head, Stringish tail) {
+    int head_depth = depth(head);
+    int tail_depth = depth(tail);
+    if (head_depth > tail_depth + 1) {
+      ConcatStringish left = (ConcatStringish) head;
+      if (depth(left.head) >= depth(left.tail)) {
+        return new ConcatStringish(left.head, new ConcatStringish(left.tail, tail));
+      }
+      ConcatStringish middle = (ConcatStringish) left.tail;
+      return new ConcatStringish(
+          new ConcatStringish(left.head, middle.head), new ConcatStringish(middle.tail, tail));
+    }
+    if (tail_depth > head_depth + 1) {
+      ConcatStringish right = (ConcatStringish) tail;
+      if (depth(right.tail) >= depth(right.head)) {
+        return new ConcatStringish(new ConcatStringish(head, right.head), right.tail);
+      }
+      ConcatStringish middle = (ConcatStringish) right.head;
+      return new ConcatStringish(
+          new ConcatStringish(head, middle.head), new ConcatStringish(middle.tail, right.tail));
+    }
+    return new ConcatStringish(head, tail);
+  }
+
+  private static int depth(Stringish str) {
+    return str instanceof ConcatStringish ? ((ConcatStringish) str).depth : 0;
+  }
+
+  private static boolean fits(Stringish head, Stringish tail) {
+    return head.getUtf16Length() + tail.getUtf16Length() <= FLATTEN_LENGTH;
+  }
+
+  private static Stringish flatten(Stringish head, Stringish tail) {
+    return new SimpleStringish(head.toString() + tail.toString());
+  }
+
+  /** Join two balanced ropes into a balanced rope. */
+  static Stringish join(Stringish head, Stringish tail) {
+    if (head.getUtf16Length() == 0) {
+      return tail;
+    }
+    if (tail.getUtf16Length() == 0) {
+      return head;
+    }
+    if (fits(head, tail)) {
+      return flatten(head, tail);
+    }
+    // Appending a short piece goes into the neighbouring leaf if it is also short.
+    if (head instanceof ConcatStringish && ((ConcatStringish) head).tailLeafFits(tail)) {
+      ConcatStringish left = (ConcatStringish) head;
+      return join(left.head, flatten(left.tail, tail));
+    }
+    if (tail instanceof ConcatStringish && ((ConcatStringish) tail).headLeafFits(head)) {
+      ConcatStringish right = (ConcatStringish) tail;
+      return join(flatten(head, right.head), right.tail);
+    }
+    int head_depth = depth(head);
+    int tail_depth = depth(tail);
+    if (head_depth > tail_depth + 1) {
+      ConcatStringish left = (ConcatStringish) head;
+      return balance(left.head, join(left.tail, tail));
+    }
+    if (tail_depth > head_depth + 1) {
+      ConcatStringish right = (ConcatStringish) tail;
+      return balance(join(head, right.head), right.tail);
+    }
+    return new ConcatStringish(head, tail);
+  }
+
+  private final long chars;
+  private final int count;
+  private final int depth;
+  private final Stringish head;
+  private final Stringish tail;
+  private final long utf16_length;
+  private long utf8_length = -1;
+
+  /**
+   * Create a node joining two strings as they are. Use {@link Stringish#concat(Stringish,
+   * Stringish)} to keep the rope balanced.
+   */
   public ConcatStringish(Stringish head, Stringish tail) {
     this.head = head;
     this.tail = tail;
     this.chars = head.getLength() + tail.getLength();
+    this.count = head.getCount() + tail.getCount();
+    this.depth = Math.max(depth(head), depth(tail)) + 1;
+    this.utf16_length = head.getUtf16Length() + tail.getUtf16Length();
+  }
+
+  @Override
+  void appendCodepoints(StringBuilder builder, long start, long end) {
+    long head_length = head.getLength();
+    if (start < head_length) {
+      head.appendCodepoints(builder, start, Math.min(end, head_length));
+    }
+    if (end > head_length) {
+      tail.appendCodepoints(builder, Math.max(start - head_length, 0), end - head_length);
+    }
+  }
+
+  @Override
+  long codepointToUtf16(long codepoint) {
+    long head_length = head.getLength();
+    return codepoint < head_length
+        ? head.codepointToUtf16(codepoint)
+        : head.getUtf16Length() + tail.codepointToUtf16(codepoint - head_length);
   }
 
   @Override
   int getCount() {
-    return head.getCount() + tail.getCount();
+    return count;
   }
 
   @Override
@@ -26,12 +136,19 @@ public class ConcatStringish extends Stringish {
 
   @Override
   public long getUtf16Length() {
-    return head.getUtf16Length() + tail.getUtf16Length();
+    return utf16_length;
   }
 
   @Override
   public long getUtf8Length() {
-    return head.getUtf8Length() + tail.getUtf8Length();
+    if (utf8_length < 0) {
+      utf8_length = head.getUtf8Length() + tail.getUtf8Length();
+    }
+    return utf8_length;
+  }
+
+  private boolean headLeafFits(Stringish other) {
+    return !(head instanceof ConcatStringish) && fits(other, head);
   }
 
   @Override
@@ -39,4 +156,31 @@ public class ConcatStringish extends Stringish {
     stack.push(tail);
     return head.ramblingNext(stack);
   }
+
+  @Override
+  void writeUtf8Pieces(Utf8Writer writer) throws IOException {
+    head.writeUtf8Pieces(writer);
+    tail.writeUtf8Pieces(writer);
+  }
+
+  private boolean tailLeafFits(Stringish other) {
+    return !(tail instanceof ConcatStringish) && fits(tail, other);
+  }
+
+  @Override
+  long utf16ToCodepoint(long offset) {
+    long head_length = head.getUtf16Length();
+    return offset < head_length
+        ? head.utf16ToCodepoint(offset)
+        : head.getLength() + tail.utf16ToCodepoint(offset - head_length);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder((int) utf16_length);
+    for (String piece : this) {
+      builder.append(piece);
+    }
+    return builder.toString();
+  }
 }
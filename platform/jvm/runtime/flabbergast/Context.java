@@ -1,14 +1,24 @@
 package flabbergast;
 
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
-import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
-/** The collection of frames in which lookup should be performed. */
+/**
+ * The collection of frames in which lookup should be performed.
+ *
+ * <p>A context is an immutable list of frames that shares its tail with the contexts it was built
+ * from, so creating a frame does not copy the context of its parent.
+ */
 public class Context implements Iterable<Frame> {
   /**
    * Conjoin two contexts, placing all the frames of the provided context after all the frames in
    * the original context.
+   *
+   * <p>Frames in the new tail that are already in the original context are dropped. The longest
+   * suffix of the new tail that contains none of those frames is shared, rather than copied.
    */
   public static Context append(Context original, Context new_tail) {
     if (original == null) {
@@ -17,50 +27,132 @@ public class Context implements Iterable<Frame> {
     if (new_tail == null || original == new_tail) {
       return original;
     }
+    Set<Frame> seen = Collections.newSetFromMap(new IdentityHashMap<Frame, Boolean>());
     int filter = 0;
-    List<Frame> list = new ArrayList<Frame>(original.getLength() + new_tail.getLength());
-    for (Frame f : original.frames) {
-      list.add(f);
-      filter |= f.hashCode();
+    for (Context node = original; node != null; node = node.tail) {
+      seen.add(node.head);
+      filter |= node.filter;
     }
-    for (Frame frame : new_tail.frames) {
-      int hash = frame.hashCode();
-      if ((hash & filter) != hash || !list.contains(frame)) {
-        list.add(frame);
-        filter |= hash;
+    // Find the start of the suffix that can be shared.
+    Context shared = new_tail;
+    for (Context node = new_tail; node != null; node = node.tail) {
+      int hash = node.head.hashCode();
+      if ((hash & filter) == hash && seen.contains(node.head)) {
+        shared = node.tail;
       }
     }
-    return new Context(list);
+    Frame[] prefix = new Frame[original.length + new_tail.length];
+    int count = 0;
+    for (Context node = original; node != null; node = node.tail) {
+      prefix[count++] = node.head;
+    }
+    for (Context node = new_tail; node != shared; node = node.tail) {
+      if (!seen.contains(node.head)) {
+        prefix[count++] = node.head;
+      }
+    }
+    Context result = shared;
+    while (count > 0) {
+      result = new Context(prefix[--count], result);
+    }
+    return result;
   }
 
   public static Context prepend(Frame head, Context tail) {
     if (head == null) {
       throw new IllegalArgumentException("Cannot prepend a null frame to a context.");
     }
-    List<Frame> list = new ArrayList<Frame>(tail == null ? 1 : (tail.getLength() + 1));
-    list.add(head);
-    if (tail != null) {
-      for (Frame frame : tail.frames) {
-        if (head != frame) {
-          list.add(frame);
+    if (tail == null) {
+      return new Context(head, null);
+    }
+    if (tail.head == head) {
+      return tail;
+    }
+    int hash = head.hashCode();
+    if ((hash & tail.filter) == hash) {
+      // The frame might already be in the context, in which case it must be moved to the front.
+      for (Context node = tail; node != null; node = node.tail) {
+        if (node.head == head) {
+          return new Context(head, without(tail, node));
         }
       }
     }
-    return new Context(list);
+    return new Context(head, tail);
   }
 
-  private List<Frame> frames;
+  /** Create a context for a newly created frame, which cannot already be in the tail. */
+  static Context prependNew(Frame head, Context tail) {
+    return new Context(head, tail);
+  }
+
+  /** Copy a context, leaving out one of its nodes and sharing everything after it. */
+  private static Context without(Context context, Context excluded) {
+    Frame[] prefix = new Frame[context.length - excluded.length];
+    int count = 0;
+    for (Context node = context; node != excluded; node = node.tail) {
+      prefix[count++] = node.head;
+    }
+    Context result = excluded.tail;
+    while (count > 0) {
+      result = new Context(prefix[--count], result);
+    }
+    return result;
+  }
+
+  /** A bit-wise union of the hash codes of all the frames, for quick exclusion. */
+  private final int filter;
+
+  private final Frame head;
 
-  private Context(List<Frame> frames) {
-    this.frames = frames;
+  private final int length;
+
+  private final Context tail;
+
+  private Context(Frame head, Context tail) {
+    this.head = head;
+    this.tail = tail;
+    this.length = tail == null ? 1 : (tail.length + 1);
+    this.filter = tail == null ? head.hashCode() : (tail.filter | head.hashCode());
+  }
+
+  /** The first frame in the context. */
+  Frame getHead() {
+    return head;
   }
 
   public int getLength() {
-    return frames.size();
+    return length;
+  }
+
+  /** The context after the first frame, or null if there are no more frames. */
+  Context getTail() {
+    return tail;
   }
 
   @Override
   public Iterator<Frame> iterator() {
-    return frames.iterator();
+    return new Iterator<Frame>() {
+      private Context current = Context.this;
+
+      @Override
+      public boolean hasNext() {
+        return current != null;
+      }
+
+      @Override
+      public Frame next() {
+        if (current == null) {
+          throw new NoSuchElementException();
+        }
+        Frame frame = current.head;
+        current = current.tail;
+        return frame;
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
   }
 }
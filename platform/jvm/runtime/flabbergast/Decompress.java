@@ -27,4 +27,9 @@ public class Decompress extends BaseMapFunctionInterop<byte[], byte[]> {
       return output.toByteArray();
     }
   }
+
+  @Override
+  protected boolean isParallel() {
+    return true;
+  }
 }
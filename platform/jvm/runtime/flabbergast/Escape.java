@@ -189,6 +189,11 @@ public class Escape extends BaseMapFunctionInterop<String, String> {
     return buffer.toString();
   }
 
+  @Override
+  protected boolean isParallel() {
+    return true;
+  }
+
   @Override
   protected void setupExtra() {}
 }
@@ -1,32 +1,37 @@
 package flabbergast;
 
 import java.util.Iterator;
-import java.util.TreeMap;
 
 public class FixedFrame extends Frame {
 
-  private TreeMap<String, Object> attributes = new TreeMap<String, Object>();
+  private final AttributeMap attributes = new AttributeMap();
 
   public FixedFrame(String id, SourceReference source_ref) {
     super(id, source_ref, null, null);
+    trackNames();
   }
 
   public FixedFrame add(Frame[] frames) {
     for (Frame frame : frames) {
-      attributes.put(frame.getId().toString(), frame);
+      String name = frame.getId().toString();
+      recordName(name);
+      attributes.put(name, frame);
     }
     return this;
   }
 
   public void add(String name, byte[] value) {
+    recordName(name);
     attributes.put(name, value);
   }
 
   public void add(String name, long value) {
+    recordName(name);
     attributes.put(name, value);
   }
 
   public void add(String name, String value) {
+    recordName(name);
     attributes.put(name, new SimpleStringish(value));
   }
 
@@ -37,7 +42,12 @@ public class FixedFrame extends Frame {
 
   @Override
   public Object get(String name) {
-    return attributes.containsKey(name) ? attributes.get(name) : null;
+    return attributes.get(name);
+  }
+
+  @Override
+  public Object get(int symbol) {
+    return attributes.get(symbol);
   }
 
   /** Check if an attribute name is present in the frame. */
@@ -48,6 +58,6 @@ public class FixedFrame extends Frame {
 
   @Override
   public Iterator<String> iterator() {
-    return attributes.keySet().iterator();
+    return attributes.iterator();
   }
 }
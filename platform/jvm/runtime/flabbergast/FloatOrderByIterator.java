@@ -0,0 +1,20 @@
+package flabbergast;
+
+/** Order keys by floating-point values, kept unboxed. */
+public class FloatOrderByIterator extends BaseOrderByIterator {
+  private final double[] orders;
+
+  public FloatOrderByIterator(Iterable<String>[] inputs) {
+    super(inputs);
+    orders = new double[getSize()];
+  }
+
+  @Override
+  protected int compare(int left, int right) {
+    return Double.compare(orders[left], orders[right]);
+  }
+
+  public void setupReturn(double order) {
+    orders[getSetupIndex()] = order;
+  }
+}
@@ -7,6 +7,10 @@ import java.util.HashSet;
 /** A Frame in the Flabbergast language. */
 public abstract class Frame implements Iterable<String> {
 
+  /**
+   * Create a frame with the integers from start to end, inclusive. If the range has more items
+   * than a frame can hold, the error is reported and null is returned.
+   */
   public static Frame through(
       TaskMaster task_master,
       SourceReference source_ref,
@@ -14,22 +18,36 @@ public abstract class Frame implements Iterable<String> {
       long end,
       Context context,
       Frame container) {
-    MutableFrame result =
-        new MutableFrame(
-            task_master, source_ref,
-            context, container);
-    if (end < start) {
-      return result;
+    if (end >= start && RangeFrame.length(start, end) > Integer.MAX_VALUE) {
+      task_master.reportOtherError(
+          source_ref,
+          String.format("The range %d Through %d has too many items for a frame.", start, end));
+      return null;
     }
-    for (long it = 0; it <= (end - start); it++) {
-      result.set(SupportFunctions.ordinalNameStr(it + 1), start + it);
-    }
-    return result;
+    return new RangeFrame(task_master, source_ref, start, end, context, container);
+  }
+
+  /** The bits set in a name filter for a particular attribute name. */
+  static long nameFilterBits(String name) {
+    int hash = name.hashCode();
+    return (1L << (hash & 63)) | (1L << ((hash >>> 6) & 63));
   }
 
   private final Frame container;
   private final Context context;
-  private final Stringish id;
+
+  /** The name of the frame, once created. Racing threads create the same name. */
+  private Stringish id;
+
+  /** The number from which the name is created, if the frame was not given a name. */
+  private final long ordinal_id;
+
+  /**
+   * A Bloom filter over the names of the attributes in this frame. Frames that do not track their
+   * names leave every bit set, so no name is excluded.
+   */
+  private long name_filter = -1L;
+
   private final SourceReference source_reference;
 
   public Frame(String id, SourceReference source_ref, Context context, Frame container) {
@@ -38,14 +56,18 @@ public abstract class Frame implements Iterable<String> {
 
   public Frame(Stringish id, SourceReference source_ref, Context context, Frame container) {
     this.source_reference = source_ref;
-    this.context = Context.prepend(this, context);
+    this.context = Context.prependNew(this, context);
     this.container = container == null ? this : container;
     this.id = id;
+    this.ordinal_id = 0;
   }
 
   public Frame(
       TaskMaster task_master, SourceReference source_ref, Context context, Frame container) {
-    this(SupportFunctions.ordinalName(task_master.nextId()), source_ref, context, container);
+    this.source_reference = source_ref;
+    this.context = Context.prependNew(this, context);
+    this.container = container == null ? this : container;
+    this.ordinal_id = task_master.nextId();
   }
 
   public abstract int count();
@@ -56,6 +78,11 @@ public abstract class Frame implements Iterable<String> {
    */
   public abstract Object get(String name);
 
+  /** Access an attribute by its symbol from {@link SymbolTable}. */
+  public Object get(int symbol) {
+    return get(SymbolTable.getName(symbol));
+  }
+
   /** The containing frame, or null for file-level frames. */
   public Frame getContainer() {
     return container;
@@ -67,6 +94,9 @@ public abstract class Frame implements Iterable<String> {
   }
 
   public Stringish getId() {
+    if (id == null) {
+      id = SupportFunctions.ordinalName(ordinal_id);
+    }
     return id;
   }
 
@@ -75,17 +105,14 @@ public abstract class Frame implements Iterable<String> {
    * available, false if the caller should wait to be reinvoked.
    */
   boolean getOrSubscribe(String name, ConsumeResult consumer) {
-    Object result = get(name);
-    if (result == null) {
-      return false;
-    }
-    if (result instanceof Future) {
-      ((Future) result).listen(consumer);
-    } else {
-      consumer.consume(result);
-    }
-    return true;
+    return subscribe(get(name), consumer);
+  }
+
+  /** Access a value, by its symbol from {@link SymbolTable}, or be notified upon completion. */
+  boolean getOrSubscribe(int symbol, ConsumeResult consumer) {
+    return subscribe(get(symbol), consumer);
   }
+
   /** The stack trace when this frame was created. */
   public SourceReference getSourceReference() {
     return source_reference;
@@ -94,10 +121,29 @@ public abstract class Frame implements Iterable<String> {
   /** Check if an attribute name is present in the frame. */
   public abstract boolean has(String name);
 
+  /** Check if an attribute is present in the frame by its symbol from {@link SymbolTable}. */
+  public boolean has(int symbol) {
+    return has(SymbolTable.getName(symbol));
+  }
+
   public boolean has(Stringish name) {
     return has(name.toString());
   }
 
+  /**
+   * Check if an attribute name could be present in the frame, given its bits from {@link
+   * #nameFilterBits(String)}. False means the name is definitely absent; true means it may be
+   * present and the frame must be checked.
+   */
+  boolean mightHave(long name_bits) {
+    return (name_filter & name_bits) == name_bits;
+  }
+
+  /** Record that an attribute name has been added to a frame that tracks its names. */
+  protected final void recordName(String name) {
+    name_filter |= nameFilterBits(name);
+  }
+
   public Stringish renderTrace(Stringish prefix) {
     StringWriter writer = new StringWriter();
     HashSet<SourceReference> seen = new HashSet<SourceReference>();
@@ -108,4 +154,30 @@ public abstract class Frame implements Iterable<String> {
     }
     return new SimpleStringish(writer.toString());
   }
+
+  private static boolean subscribe(Object result, ConsumeResult consumer) {
+    if (result == null) {
+      return false;
+    }
+    if (result instanceof Future) {
+      ((Future) result).listen(consumer);
+    } else {
+      consumer.consume(result);
+    }
+    return true;
+  }
+
+  /**
+   * Trigger any unfinished computations contained in this frame to be executed. Frames that have
+   * no deferred computations need not do anything.
+   */
+  public void slot() {}
+
+  /**
+   * Start tracking attribute names for {@link #mightHave(long)}. This must be called before any
+   * attributes are added and then every added name passed to {@link #recordName(String)}.
+   */
+  protected final void trackNames() {
+    name_filter = 0;
+  }
 }
@@ -0,0 +1,116 @@
+package flabbergast;
+
+import java.util.Arrays;
+
+/**
+ * The attribute names of frames instantiated from the same template with the same overrides.
+ *
+ * <p>A shape is immutable and shared by all frames built from it, so each frame only needs to store
+ * its values. The slot of each symbol is cached the first time it is looked up, so lookups through
+ * frames of the same shape do not search the names again. The cache is a small open-addressed table
+ * holding only the symbols looked up through this shape, so it does not grow with the total number
+ * of symbols in the program.
+ */
+final class FrameShape {
+  /** The number of symbol entries in a new cache; always a power of two. */
+  private static final int INITIAL_CAPACITY = 8;
+
+  /** Build a shape from any collection of names, which may contain duplicates. */
+  static FrameShape of(Iterable<String> template_names, Iterable<String> override_names) {
+    AttributeMap names = new AttributeMap();
+    for (String name : template_names) {
+      names.put(name, Boolean.TRUE);
+    }
+    for (String name : override_names) {
+      names.put(name, Boolean.TRUE);
+    }
+    String[] sorted = new String[names.size()];
+    int index = 0;
+    for (String name : names) {
+      sorted[index++] = name.intern();
+    }
+    return new FrameShape(sorted);
+  }
+
+  private final String[] names;
+
+  /**
+   * Pairs of a symbol plus one, or zero for an empty entry, and its slot, or a negative number if
+   * the symbol is absent. The table is replaced, never modified, once published.
+   */
+  private volatile int[] symbol_slots = new int[INITIAL_CAPACITY * 2];
+
+  private FrameShape(String[] names) {
+    this.names = names;
+  }
+
+  /** Find the slot of a name, or a negative number if absent. */
+  int indexOf(String name) {
+    return Arrays.binarySearch(names, name);
+  }
+
+  /** Find the slot of a symbol from {@link SymbolTable}, or a negative number if absent. */
+  int indexOf(int symbol) {
+    int[] slots = symbol_slots;
+    int mask = slots.length / 2 - 1;
+    for (int entry = hash(symbol) & mask; slots[entry * 2] != 0; entry = (entry + 1) & mask) {
+      if (slots[entry * 2] == symbol + 1) {
+        return slots[entry * 2 + 1];
+      }
+    }
+    int index = indexOf(SymbolTable.getName(symbol));
+    cache(symbol, index < 0 ? -1 : index);
+    return index;
+  }
+
+  /**
+   * Add a symbol to the cache by publishing a new table. Racing writers may lose each other's
+   * entries, which only costs another search.
+   */
+  private void cache(int symbol, int index) {
+    int[] slots = symbol_slots;
+    int count = 1;
+    for (int entry = 0; entry < slots.length; entry += 2) {
+      if (slots[entry] != 0) {
+        count++;
+      }
+    }
+    // Keep the table at most half full, so probes stay short and always reach an empty entry.
+    int capacity = slots.length / 2;
+    while (count * 2 > capacity) {
+      capacity *= 2;
+    }
+    int[] updated = new int[capacity * 2];
+    for (int entry = 0; entry < slots.length; entry += 2) {
+      if (slots[entry] != 0) {
+        insert(updated, slots[entry] - 1, slots[entry + 1]);
+      }
+    }
+    insert(updated, symbol, index);
+    symbol_slots = updated;
+  }
+
+  private static int hash(int symbol) {
+    int hash = symbol * 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+
+  private static void insert(int[] slots, int symbol, int index) {
+    int mask = slots.length / 2 - 1;
+    int entry = hash(symbol) & mask;
+    while (slots[entry * 2] != 0 && slots[entry * 2] != symbol + 1) {
+      entry = (entry + 1) & mask;
+    }
+    slots[entry * 2] = symbol + 1;
+    slots[entry * 2 + 1] = index;
+  }
+
+  /** The sorted names, which must not be modified. */
+  String[] names() {
+    return names;
+  }
+
+  int size() {
+    return names.length;
+  }
+}
@@ -1,11 +1,36 @@
 package flabbergast;
 
-import java.util.ArrayList;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /** A generic computation to be worked on by the TaskMaster. */
 public abstract class Future {
+  /** A listener pushed on top of the listeners already waiting. */
+  private static final class ListenerNode {
+    final ConsumeResult consumer;
+    final Object next;
+
+    ListenerNode(ConsumeResult consumer, Object next) {
+      this.consumer = consumer;
+      this.next = next;
+    }
+  }
+
+  /** Marker in place of the listeners once they have been woken up. */
+  private static final Object COMPLETE = new Object();
+
+  private static final int IDLE = 0;
+  private static final int RUNNING = 1;
+  private static final int RERUN = 2;
+
+  private static final AtomicReferenceFieldUpdater<Future, Object> LISTENERS =
+      AtomicReferenceFieldUpdater.newUpdater(Future.class, Object.class, "listeners");
+
+  private static final AtomicIntegerFieldUpdater<Future> RUN_STATE =
+      AtomicIntegerFieldUpdater.newUpdater(Future.class, "run_state");
+
+  private static final AtomicIntegerFieldUpdater<Future> SLOTTED =
+      AtomicIntegerFieldUpdater.newUpdater(Future.class, "slotted");
 
   /** Apply an override to a normal computation resulting in another normal computation. */
   public static ComputeValue performOverride(
@@ -50,21 +75,30 @@ public abstract class Future {
     };
   }
 
-  /** The delegate(s) to be invoked when the computation is complete. */
-  private ArrayList<ConsumeResult> consumer = new ArrayList<ConsumeResult>();
-
-  private final Lock ex = new ReentrantLock();
+  /**
+   * The delegate(s) to be invoked when the computation is complete.
+   *
+   * <p>This is null if there are none, the delegate itself if there is only one, a stack of {@link
+   * ListenerNode} if there are several, or {@link #COMPLETE} once they have been invoked.
+   */
+  private volatile Object listeners = null;
 
   /**
    * The return value of the computation.
    *
    * <p>This should be assigned by the subclass.
    */
-  protected Object result = null;
+  protected volatile Object result = null;
 
-  protected final TaskMaster task_master;
+  /**
+   * Whether the computation is currently executing. A computation may be slotted again while it is
+   * running on another thread; rather than running concurrently, the active thread runs it again.
+   */
+  private volatile int run_state = IDLE;
 
-  private boolean virgin = true;
+  private volatile int slotted = 0;
+
+  protected final TaskMaster task_master;
 
   public Future(TaskMaster task_master) {
     this.task_master = task_master;
@@ -72,13 +106,29 @@ public abstract class Future {
 
   /** Called by the TaskMaster to start or continue computation. */
   void compute() {
-    if (result == null) {
-      run();
-      if (result == null) {
+    while (true) {
+      int state = run_state;
+      if (state == IDLE && RUN_STATE.compareAndSet(this, IDLE, RUNNING)) {
+        break;
+      }
+      if (state == RERUN || state == RUNNING && RUN_STATE.compareAndSet(this, RUNNING, RERUN)) {
         return;
       }
-      wakeupListeners();
     }
+    do {
+      run_state = RUNNING;
+      if (result == null) {
+        run();
+        if (result != null) {
+          wakeupListeners();
+        }
+      }
+    } while (!RUN_STATE.compareAndSet(this, RUNNING, IDLE));
+  }
+
+  /** The result of the computation, or null if it has not finished. */
+  Object getResult() {
+    return result;
   }
 
   /**
@@ -90,16 +140,29 @@ public abstract class Future {
   }
 
   public void listen(ConsumeResult new_consumer, boolean needs_slot) {
-    ex.lock();
-    if (result == null) {
-      consumer.add(new_consumer);
-      if (needs_slot) {
-        slotHelper();
+    while (result == null) {
+      Object current = listeners;
+      if (current == COMPLETE) {
+        break;
+      }
+      if (LISTENERS.compareAndSet(
+          this,
+          current,
+          current == null ? new_consumer : new ListenerNode(new_consumer, current))) {
+        if (needs_slot) {
+          slotHelper();
+        }
+        return;
       }
-      ex.unlock();
+    }
+    deliver(new_consumer);
+  }
+
+  private void deliver(ConsumeResult consumer) {
+    if (task_master == null) {
+      consumer.consume(result);
     } else {
-      ex.unlock();
-      new_consumer.consume(result);
+      task_master.deliver(consumer, result);
     }
   }
 
@@ -111,16 +174,13 @@ public abstract class Future {
   protected abstract void run();
 
   public void slot() {
-    ex.lock();
     if (result == null) {
       slotHelper();
     }
-    ex.unlock();
   }
 
   private void slotHelper() {
-    if (virgin && task_master != null) {
-      virgin = false;
+    if (task_master != null && slotted == 0 && SLOTTED.compareAndSet(this, 0, 1)) {
       task_master.slot(this);
     }
   }
@@ -129,17 +189,28 @@ public abstract class Future {
     if (result == null) {
       throw new UnsupportedOperationException();
     }
-    ex.lock();
-    ArrayList<ConsumeResult> consumer_copy = consumer;
-    consumer = null;
-    ex.unlock();
-
-    if (consumer_copy == null) {
+    Object current = LISTENERS.getAndSet(this, COMPLETE);
+    if (current == null || current == COMPLETE) {
       return;
     }
-
-    for (ConsumeResult cr : consumer_copy) {
-      cr.consume(result);
+    if (current instanceof ConsumeResult) {
+      deliver((ConsumeResult) current);
+      return;
+    }
+    // The stack holds the most recent listener first, but listeners are woken in the order added.
+    int count = 0;
+    for (Object node = current; node instanceof ListenerNode; node = ((ListenerNode) node).next) {
+      count++;
+    }
+    ConsumeResult[] consumers = new ConsumeResult[count + 1];
+    Object node = current;
+    for (int it = count; it > 0; it--) {
+      consumers[it] = ((ListenerNode) node).consumer;
+      node = ((ListenerNode) node).next;
+    }
+    consumers[0] = (ConsumeResult) node;
+    for (ConsumeResult consumer : consumers) {
+      deliver(consumer);
     }
   }
 }
@@ -0,0 +1,89 @@
+package flabbergast;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Group the values in one frame by the keys with the same attribute names in another.
+ *
+ * <p>Each key is hashed once, into a map with one entry per distinct key, and each item records the
+ * number of its group. This is not memory-bounded: the values and keys are all held, already
+ * evaluated, and every item ends up in a group frame. Groups are produced in the order their first
+ * item appears, and the items in each group keep their original names and order.
+ */
+public class GroupBy extends BaseFunctionInterop<Frame> {
+  /** A value that is equal for two keys exactly when the keys are equal under ==. */
+  private static Object hashKey(Object key) {
+    if (key instanceof Stringish) {
+      return ByteBuffer.wrap(((Stringish) key).getSortKey());
+    }
+    return key;
+  }
+
+  private Map<String, Object> input;
+  private Map<String, Object> keys;
+
+  public GroupBy(
+      TaskMaster task_master,
+      SourceReference source_ref,
+      Context context,
+      Frame self,
+      Frame container) {
+    super(task_master, source_ref, context, self, container);
+  }
+
+  @Override
+  protected Frame computeResult() throws Exception {
+    Map<Object, Integer> group_ids = new HashMap<Object, Integer>();
+    List<Object> group_keys = new ArrayList<Object>();
+    int[] group_of = new int[input.size()];
+    int index = 0;
+    for (String name : input.keySet()) {
+      Object key = keys.get(name);
+      if (key == null) {
+        throw new IllegalArgumentException(String.format("There is no key for “%s”.", name));
+      }
+      if (!(key instanceof Long || key instanceof Stringish || key instanceof Boolean)) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Key for “%s” has type %s but expected Int or Str or Bool.",
+                name, SupportFunctions.nameForClass(key.getClass())));
+      }
+      Integer group = group_ids.putIfAbsent(hashKey(key), group_keys.size());
+      if (group == null) {
+        group = group_keys.size();
+        group_keys.add(key);
+      }
+      group_of[index++] = group;
+    }
+
+    MutableFrame output = new MutableFrame(task_master, source_reference, context, self);
+    MutableFrame[] items = new MutableFrame[group_keys.size()];
+    for (int it = 0; it < items.length; it++) {
+      MutableFrame group = new MutableFrame(task_master, source_reference, context, output);
+      items[it] = new MutableFrame(task_master, source_reference, context, group);
+      group.set("items", items[it]);
+      group.set("key", group_keys.get(it));
+      output.set(it + 1, group);
+    }
+    index = 0;
+    for (Entry<String, Object> entry : input.entrySet()) {
+      items[group_of[index++]].set(entry.getKey(), entry.getValue());
+    }
+    return output;
+  }
+
+  @Override
+  protected void setup() {
+    ListSink<Object> args_lookup = findAll(Object.class, x -> input = x);
+    args_lookup.allowDefault(false, null);
+    args_lookup.lookup("args");
+    ListSink<Object> keys_lookup = findAll(Object.class, x -> keys = x);
+    keys_lookup.allowDefault(false, null);
+    keys_lookup.lookup("keys");
+  }
+}
@@ -40,7 +40,8 @@ public class Instantiation extends InterlockedLookup {
                 source_reference,
                 tmpl.getSourceReference()),
             Context.append(context, tmpl.getContext()),
-            container);
+            container,
+            tmpl.getShape(overrides.keySet()));
     for (Entry<String, Object> entry : overrides.entrySet()) {
       frame.set(entry.getKey(), entry.getValue());
     }
@@ -0,0 +1,20 @@
+package flabbergast;
+
+/** Order keys by integer values, kept unboxed. */
+public class IntOrderByIterator extends BaseOrderByIterator {
+  private final long[] orders;
+
+  public IntOrderByIterator(Iterable<String>[] inputs) {
+    super(inputs);
+    orders = new long[getSize()];
+  }
+
+  @Override
+  protected int compare(int left, int right) {
+    return Long.compare(orders[left], orders[right]);
+  }
+
+  public void setupReturn(long order) {
+    orders[getSetupIndex()] = order;
+  }
+}
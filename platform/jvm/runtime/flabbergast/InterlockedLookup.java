@@ -15,8 +15,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
@@ -131,7 +131,7 @@ public abstract class InterlockedLookup extends Future {
         return;
       }
       Frame frame = (Frame) input_result;
-      Map<String, T> results = new TreeMap<>();
+      Map<String, T> results = new ConcurrentSkipListMap<>();
       interlock.addAndGet(frame.count());
       AtomicInteger listInterlock = new AtomicInteger(frame.count());
       for (String name : frame) {
@@ -10,6 +10,21 @@ public abstract class Interop implements UriHandler {
 
   private Map<String, Future> bindings = new HashMap<>();
 
+  /** Whether the functions registered by addMap may be applied to several values at once. */
+  private final boolean parallel_maps;
+
+  protected Interop() {
+    this(false);
+  }
+
+  /**
+   * Create an interop whose map functions may be applied in parallel, if every function registered
+   * by addMap only depends on its arguments.
+   */
+  protected Interop(boolean parallel_maps) {
+    this.parallel_maps = parallel_maps;
+  }
+
   protected <T, R> void add(
       Class<R> returnClass, Class<T> clazz, String name, Func<T, R> func, String parameter) {
     add(returnClass, name, func, clazz, false, parameter);
@@ -88,12 +103,24 @@ public abstract class Interop implements UriHandler {
     bindings.put(name, new Precomputation(frame));
   }
 
+  /**
+   * Register a function applied to each value in a frame. If this interop allows parallel maps, the
+   * function may be applied to several values at once on other threads.
+   */
   protected <T, R> void addMap(Class<R> returnClass, Class<T> clazz, String name, Func<T, R> func) {
     add(
         name,
         (task_master, source_ref, context, self, container) ->
             new MapFunctionInterop<>(
-                returnClass, clazz, func, task_master, source_ref, context, self, container));
+                returnClass,
+                clazz,
+                func,
+                parallel_maps,
+                task_master,
+                source_ref,
+                context,
+                self,
+                container));
   }
 
   protected <T1, T2, R> void addMap(
@@ -111,6 +138,7 @@ public abstract class Interop implements UriHandler {
                 returnClass,
                 clazz,
                 func,
+                parallel_maps,
                 parameterClass,
                 parameterNullable,
                 parameter,
@@ -149,6 +177,7 @@ public abstract class Interop implements UriHandler {
                 returnClass,
                 clazz,
                 func,
+                parallel_maps,
                 parameter1Class,
                 parameter1Nullable,
                 parameter1,
@@ -205,6 +234,7 @@ public abstract class Interop implements UriHandler {
                 returnClass,
                 clazz,
                 func,
+                parallel_maps,
                 parameter1Class,
                 parameter1Nullable,
                 parameter1,
@@ -66,7 +66,7 @@ public class JdbcQuery extends BaseFunctionInterop<Frame> {
           @Override
           Object invoke(ResultSet rs, int position, TaskMaster task_master) throws SQLException {
             String str = rs.getString(position);
-            return str == null ? null : new SimpleStringish(str);
+            return str == null ? null : StringishPool.intern(str, Utf8Stringish::new);
           }
         },
         Types.CHAR,
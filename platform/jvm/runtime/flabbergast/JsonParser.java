@@ -86,7 +86,10 @@ public class JsonParser extends BaseMapFunctionInterop<String, Template> {
                 while (it.hasNext()) {
                   String name = it.next();
                   try {
-                    o_arg_frame.set(index, new Dispatch(new SimpleStringish(name), obj.get(name)));
+                    o_arg_frame.set(
+                        index,
+                        new Dispatch(
+                            StringishPool.intern(name, Utf8Stringish::new), obj.get(name)));
                   } catch (JSONException e) {
                     o_arg_frame.set(
                         index, new FailureFuture(o_task_master, o_reference, e.getMessage()));
@@ -99,7 +102,7 @@ public class JsonParser extends BaseMapFunctionInterop<String, Template> {
       } else if (node instanceof String) {
         computation = new Instantiation(task_master, src_ref, context, self, "json", "scalar");
         computation.add("json_name", name);
-        computation.add("arg", new SimpleStringish((String) node));
+        computation.add("arg", StringishPool.intern((String) node, Utf8Stringish::new));
       } else {
         return new FailureFuture(task_master, src_ref, "Unknown JSON entry.");
       }
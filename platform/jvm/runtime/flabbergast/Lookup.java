@@ -27,7 +27,7 @@ public class Lookup extends Future {
         result_frame = ((Frame) return_value);
         Attempt next = new Attempt(name + 1, frame, result_frame);
         known_attempts.add(next);
-        if (result_frame.getOrSubscribe(names[name + 1], next)) {
+        if (subscribe(result_frame, name + 1, next)) {
           return;
         }
         activateNext();
@@ -67,6 +67,9 @@ public class Lookup extends Future {
 
   private final Frame[] frames;
 
+  /** The name filter bits for the first name. */
+  private final long first_name_bits;
+
   private LinkedList<Attempt> known_attempts = new LinkedList<Attempt>();
 
   /** The name components in the lookup expression. */
@@ -74,11 +77,31 @@ public class Lookup extends Future {
 
   private SourceReference source_reference;
 
+  /** The symbols for the names, if the lookup was created from symbols. */
+  private final int[] symbols;
+
   public Lookup(
       TaskMaster task_master, SourceReference source_ref, String[] names, Context context) {
+    this(task_master, source_ref, names, null, context);
+  }
+
+  /** Create a lookup for names given as symbols from {@link SymbolTable}. */
+  public Lookup(
+      TaskMaster task_master, SourceReference source_ref, int[] symbols, Context context) {
+    this(task_master, source_ref, namesForSymbols(symbols), symbols, context);
+  }
+
+  private Lookup(
+      TaskMaster task_master,
+      SourceReference source_ref,
+      String[] names,
+      int[] symbols,
+      Context context) {
     super(task_master);
     this.source_reference = source_ref;
     this.names = names;
+    this.symbols = symbols;
+    first_name_bits = names.length == 0 ? 0 : Frame.nameFilterBits(names[0]);
     frames = new Frame[context.getLength()];
     int frame_index = 0;
     for (Frame frame : context) {
@@ -90,16 +113,34 @@ public class Lookup extends Future {
   private void activateNext() {
     while (frame_index < frames.length) {
       int index = frame_index++;
+      if (!frames[index].mightHave(first_name_bits)) {
+        // Looking in a frame slots its pending computations, even if the name is absent.
+        frames[index].slot();
+        continue;
+      }
       Attempt root_attempt = new Attempt(0, index, frames[index]);
       known_attempts.add(root_attempt);
-      if (frames[index].getOrSubscribe(names[0], root_attempt)) {
+      if (subscribe(frames[index], 0, root_attempt)) {
         return;
       }
     }
     task_master.reportLookupError(this, null);
   }
 
+  private static String[] namesForSymbols(int[] symbols) {
+    String[] names = new String[symbols.length];
+    for (int it = 0; it < symbols.length; it++) {
+      names[it] = SymbolTable.getName(symbols[it]);
+    }
+    return names;
+  }
+
   public Frame get(int name, int frame) {
+    if (name == 0) {
+      // Every frame before the current one has been searched for the first name, even those
+      // excluded by their name filters, which have no attempt.
+      return frame < frame_index ? frames[frame] : null;
+    }
     for (int index = 0; index < known_attempts.size(); index++) {
       Attempt current = known_attempts.get(index);
       if (current.frame == frame && current.name > name || current.frame > frame) {
@@ -147,6 +188,12 @@ public class Lookup extends Future {
     return source_reference;
   }
 
+  private boolean subscribe(Frame frame, int name, ConsumeResult consumer) {
+    return symbols == null
+        ? frame.getOrSubscribe(names[name], consumer)
+        : frame.getOrSubscribe(symbols[name], consumer);
+  }
+
   @Override
   protected void run() {
     activateNext();
@@ -0,0 +1,130 @@
+package flabbergast;
+
+/**
+ * A lookup site in compiled code whose names are known at compile time.
+ *
+ * <p>Most lookups find values that have already been computed. The site first walks the context
+ * itself, without creating a {@link Lookup} or an iterator, and delivers the value through the task
+ * master if every step of the path is already available, so the nesting of deliveries stays
+ * bounded. If any step is still pending, the path is broken or no frame has the name, it falls back
+ * to a full {@link Lookup}, which waits or reports the error. A site whose fast path keeps missing
+ * backs off and goes straight to the full lookup for a while.
+ *
+ * <p>Lookups of a name computed at run time, such as each item of a fricassée, have no site, but
+ * take the same fast path through {@link #lookupDynamic}. Items already in a frame built by the
+ * previous clause are then delivered at once, rather than through a new {@link Lookup}. The clauses
+ * are still separate loops, each building its own frame; only the scheduler hop between them is
+ * avoided.
+ */
+public final class LookupSite {
+  /** The longest run of calls that will skip the fast path after it misses. */
+  private static final int MAX_BACKOFF = 64;
+
+  /** Indicates the fast path could not produce the value. */
+  private static final Object MISS = new Object();
+
+  /** The number of calls left that should skip the fast path. Races only affect the heuristic. */
+  private int skip;
+
+  /** The number of calls to skip after the next miss. */
+  private int backoff;
+
+  private final long first_name_bits;
+
+  private final int[] symbols;
+
+  public LookupSite(String... names) {
+    if (names.length == 0) {
+      throw new IllegalArgumentException("Lookup site has no names.");
+    }
+    symbols = new int[names.length];
+    for (int it = 0; it < names.length; it++) {
+      symbols[it] = SymbolTable.intern(names[it]);
+    }
+    first_name_bits = Frame.nameFilterBits(names[0]);
+  }
+
+  private Object find(Context context) {
+    for (Context node = context; node != null; node = node.getTail()) {
+      Frame frame = node.getHead();
+      if (!frame.mightHave(first_name_bits)) {
+        // Looking in a frame slots its pending computations, even if the name is absent.
+        frame.slot();
+        continue;
+      }
+      Object value = frame.get(symbols[0]);
+      for (int it = 1; value != null && it < symbols.length; it++) {
+        value = resolved(value);
+        if (!(value instanceof Frame)) {
+          // Either pending or a type error, which the full lookup will report.
+          return MISS;
+        }
+        value = ((Frame) value).get(symbols[it]);
+      }
+      if (value != null) {
+        value = resolved(value);
+        return value == null ? MISS : value;
+      }
+    }
+    return MISS;
+  }
+
+  /**
+   * Find the value of the names in a context and pass it to the consumer, either immediately or
+   * once a full lookup completes.
+   */
+  public void lookup(
+      TaskMaster task_master,
+      SourceReference source_reference,
+      Context context,
+      ConsumeResult consumer) {
+    if (skip > 0) {
+      skip--;
+    } else {
+      Object result = find(context);
+      if (result != MISS) {
+        backoff = 0;
+        task_master.deliver(consumer, result);
+        return;
+      }
+      skip = backoff;
+      backoff = Math.min(backoff * 2 + 1, MAX_BACKOFF);
+    }
+    new Lookup(task_master, source_reference, symbols, context).listen(consumer);
+  }
+
+  /**
+   * Find the value of a single name given at run time and pass it to the consumer, either
+   * immediately or once a full lookup completes.
+   */
+  public static void lookupDynamic(
+      TaskMaster task_master,
+      SourceReference source_reference,
+      String name,
+      Context context,
+      ConsumeResult consumer) {
+    long name_bits = Frame.nameFilterBits(name);
+    for (Context node = context; node != null; node = node.getTail()) {
+      Frame frame = node.getHead();
+      if (!frame.mightHave(name_bits)) {
+        frame.slot();
+        continue;
+      }
+      Object value = frame.get(name);
+      if (value != null) {
+        value = resolved(value);
+        if (value != null) {
+          task_master.deliver(consumer, value);
+          return;
+        }
+        break;
+      }
+    }
+    new Lookup(task_master, source_reference, new String[] {name}, context).listen(consumer);
+  }
+
+  /** Unwrap a finished computation, giving null if it is not finished. */
+  private static Object resolved(Object value) {
+    return value instanceof Future ? ((Future) value).getResult() : value;
+  }
+}
@@ -2,11 +2,13 @@ package flabbergast;
 
 public class MapFunctionInterop<T, R> extends BaseMapFunctionInterop<T, R> {
   private final Func<T, R> func;
+  private final boolean parallel;
 
   public MapFunctionInterop(
       Class<R> returnClass,
       Class<T> clazz,
       Func<T, R> func,
+      boolean parallel,
       TaskMaster task_master,
       SourceReference source_ref,
       Context context,
@@ -14,10 +16,16 @@ public class MapFunctionInterop<T, R> extends BaseMapFunctionInterop<T, R> {
       Frame container) {
     super(returnClass, clazz, task_master, source_ref, context, self, container);
     this.func = func;
+    this.parallel = parallel;
   }
 
   @Override
   protected R computeResult(T input) throws Exception {
     return func.invoke(input);
   }
+
+  @Override
+  protected boolean isParallel() {
+    return parallel;
+  }
 }
@@ -2,6 +2,7 @@ package flabbergast;
 
 public class MapFunctionInterop2<T1, T2, R> extends BaseMapFunctionInterop<T1, R> {
   private final Func2<T1, T2, R> func;
+  private final boolean parallel;
   private final String parameter;
   private final Class<T2> parameterClazz;
   private final boolean parameterNullable;
@@ -11,6 +12,7 @@ public class MapFunctionInterop2<T1, T2, R> extends BaseMapFunctionInterop<T1, R
       Class<R> returnClass,
       Class<T1> clazz,
       Func2<T1, T2, R> func,
+      boolean parallel,
       Class<T2> parameterClazz,
       boolean parameterNullable,
       String parameter,
@@ -21,6 +23,7 @@ public class MapFunctionInterop2<T1, T2, R> extends BaseMapFunctionInterop<T1, R
       Frame container) {
     super(returnClass, clazz, task_master, source_ref, context, self, container);
     this.func = func;
+    this.parallel = parallel;
     this.parameterClazz = parameterClazz;
     this.parameterNullable = parameterNullable;
     this.parameter = parameter;
@@ -31,6 +34,11 @@ public class MapFunctionInterop2<T1, T2, R> extends BaseMapFunctionInterop<T1, R
     return func.invoke(input, reference);
   }
 
+  @Override
+  protected boolean isParallel() {
+    return parallel;
+  }
+
   @Override
   protected void setupExtra() {
     Sink<T2> reference_lookup = find(parameterClazz, x -> this.reference = x);
@@ -2,6 +2,7 @@ package flabbergast;
 
 public class MapFunctionInterop3<T1, T2, T3, R> extends BaseMapFunctionInterop<T1, R> {
   private Func3<T1, T2, T3, R> func;
+  private boolean parallel;
   private String parameter1;
   private Class<T2> parameter1Clazz;
   private boolean parameter1Nullable;
@@ -15,6 +16,7 @@ public class MapFunctionInterop3<T1, T2, T3, R> extends BaseMapFunctionInterop<T
       Class<R> returnClass,
       Class<T1> clazz,
       Func3<T1, T2, T3, R> func,
+      boolean parallel,
       Class<T2> parameter1Clazz,
       boolean parameter1Nullable,
       String parameter1,
@@ -28,6 +30,7 @@ public class MapFunctionInterop3<T1, T2, T3, R> extends BaseMapFunctionInterop<T
       Frame container) {
     super(returnClass, clazz, task_master, source_reference, context, self, container);
     this.func = func;
+    this.parallel = parallel;
     this.parameter1Clazz = parameter1Clazz;
     this.parameter2Clazz = parameter2Clazz;
     this.parameter1Nullable = parameter1Nullable;
@@ -41,6 +44,11 @@ public class MapFunctionInterop3<T1, T2, T3, R> extends BaseMapFunctionInterop<T
     return func.invoke(input, reference1, reference2);
   }
 
+  @Override
+  protected boolean isParallel() {
+    return parallel;
+  }
+
   @Override
   protected void setupExtra() {
     Sink<T2> reference1_lookup = find(parameter1Clazz, x -> this.reference1 = x);
@@ -2,6 +2,7 @@ package flabbergast;
 
 public class MapFunctionInterop4<T1, T2, T3, T4, R> extends BaseMapFunctionInterop<T1, R> {
   private Func4<T1, T2, T3, T4, R> func;
+  private boolean parallel;
   private String parameter1;
   private Class<T2> parameter1Clazz;
   private boolean parameter1Nullable;
@@ -19,6 +20,7 @@ public class MapFunctionInterop4<T1, T2, T3, T4, R> extends BaseMapFunctionInter
       Class<R> returnClass,
       Class<T1> clazz,
       Func4<T1, T2, T3, T4, R> func,
+      boolean parallel,
       Class<T2> parameter1Clazz,
       boolean parameter1Nullable,
       String parameter1,
@@ -35,6 +37,7 @@ public class MapFunctionInterop4<T1, T2, T3, T4, R> extends BaseMapFunctionInter
       Frame container) {
     super(returnClass, clazz, task_master, source_reference, context, self, container);
     this.func = func;
+    this.parallel = parallel;
     this.parameter1Clazz = parameter1Clazz;
     this.parameter2Clazz = parameter2Clazz;
     this.parameter3Clazz = parameter3Clazz;
@@ -51,6 +54,11 @@ public class MapFunctionInterop4<T1, T2, T3, T4, R> extends BaseMapFunctionInter
     return func.invoke(input, reference1, reference2, reference3);
   }
 
+  @Override
+  protected boolean isParallel() {
+    return parallel;
+  }
+
   @Override
   protected void setupExtra() {
     Sink<T2> reference1_lookup = find(parameter1Clazz, x -> this.reference1 = x);
@@ -1,27 +1,80 @@
 package flabbergast;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
-/** Iterate over the keys of several of frames and templates. */
+/**
+ * Iterate over the keys of several of frames and templates.
+ *
+ * <p>Frames produce their keys in order, so the inputs are merged through a heap holding the next
+ * key of each input. Templates do not keep their keys in order, so their keys are sorted first. The
+ * dispatchers for particular keys are merged in as one more sorted input.
+ */
 public class MergeIterator {
-  private Map.Entry<String, Integer> current;
+  /** An input and the next key it will produce. */
+  private static final class Cursor {
+    private String head;
+    private final Iterator<String> iterator;
+
+    Cursor(Iterator<String> iterator) {
+      this.iterator = iterator;
+    }
+
+    /** Move to the next key, returning false if the input is exhausted. */
+    boolean advance() {
+      if (iterator.hasNext()) {
+        head = iterator.next();
+        return true;
+      }
+      return false;
+    }
+  }
+
+  private static Iterator<String> sorted(Iterable<String> input) {
+    if (input instanceof Frame) {
+      return input.iterator();
+    }
+    List<String> keys = new ArrayList<String>();
+    for (String key : input) {
+      keys.add(key);
+    }
+    Collections.sort(keys);
+    return keys.iterator();
+  }
+
+  private String current;
+
+  private final int default_dispatcher;
+
+  private Map.Entry<String, Integer> dispatcher;
+
+  private Iterator<Map.Entry<String, Integer>> dispatcher_iterator;
 
   private final SortedMap<String, Integer> dispatchers = new TreeMap<String, Integer>();
 
   private final int exit_dispatcher;
 
-  private Iterator<Map.Entry<String, Integer>> iterator;
+  /** The inputs that are not exhausted, as a binary heap ordered by their next key. */
+  private final Cursor[] heap;
+
+  private int heap_size;
 
   private long position;
 
   public MergeIterator(Iterable<String>[] inputs, int default_dispatcher, int exit_dispatcher) {
+    this.default_dispatcher = default_dispatcher;
     this.exit_dispatcher = exit_dispatcher;
+    heap = new Cursor[inputs.length];
     for (Iterable<String> input : inputs) {
-      for (String key : input) {
-        dispatchers.put(key, default_dispatcher);
+      Cursor cursor = new Cursor(sorted(input));
+      if (cursor.advance()) {
+        heap[heap_size] = cursor;
+        siftUp(heap_size++);
       }
     }
   }
@@ -39,11 +92,11 @@ public class MergeIterator {
 
   /** The current attribute name. */
   public String getCurrent() {
-    return current.getKey();
+    return current;
   }
 
   public Stringish getCurrentish() {
-    return new SimpleStringish(current.getKey());
+    return new SimpleStringish(current);
   }
 
   /** The current attribute ordinal, 1-based per the language spec. */
@@ -52,14 +105,66 @@ public class MergeIterator {
   }
 
   public int next() {
-    if (iterator == null) {
-      iterator = dispatchers.entrySet().iterator();
+    if (dispatcher_iterator == null) {
+      dispatcher_iterator = dispatchers.entrySet().iterator();
+      dispatcher = dispatcher_iterator.hasNext() ? dispatcher_iterator.next() : null;
     }
-    if (iterator.hasNext()) {
-      current = iterator.next();
-      position++;
-      return current.getValue();
+    if (heap_size == 0 && dispatcher == null) {
+      return exit_dispatcher;
     }
-    return exit_dispatcher;
+    if (heap_size > 0
+        && (dispatcher == null || heap[0].head.compareTo(dispatcher.getKey()) <= 0)) {
+      current = heap[0].head;
+      // Every input that has this key moves past it.
+      while (heap_size > 0 && heap[0].head.equals(current)) {
+        if (!heap[0].advance()) {
+          heap[0] = heap[--heap_size];
+          heap[heap_size] = null;
+        }
+        siftDown(0);
+      }
+    } else {
+      current = dispatcher.getKey();
+    }
+    position++;
+    if (dispatcher != null && dispatcher.getKey().equals(current)) {
+      int result = dispatcher.getValue();
+      dispatcher = dispatcher_iterator.hasNext() ? dispatcher_iterator.next() : null;
+      return result;
+    }
+    return default_dispatcher;
+  }
+
+  private void siftDown(int index) {
+    while (true) {
+      int smallest = index;
+      for (int child = 2 * index + 1; child <= 2 * index + 2 && child < heap_size; child++) {
+        if (heap[child].head.compareTo(heap[smallest].head) < 0) {
+          smallest = child;
+        }
+      }
+      if (smallest == index) {
+        return;
+      }
+      swap(index, smallest);
+      index = smallest;
+    }
+  }
+
+  private void siftUp(int index) {
+    while (index > 0) {
+      int parent = (index - 1) / 2;
+      if (heap[parent].head.compareTo(heap[index].head) <= 0) {
+        return;
+      }
+      swap(index, parent);
+      index = parent;
+    }
+  }
+
+  private void swap(int left, int right) {
+    Cursor cursor = heap[left];
+    heap[left] = heap[right];
+    heap[right] = cursor;
   }
 }
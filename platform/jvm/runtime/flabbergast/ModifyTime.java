@@ -41,6 +41,11 @@ public class ModifyTime extends BaseMapFunctionInterop<ZonedDateTime, ZonedDateT
         .plusYears((int) years);
   }
 
+  @Override
+  protected boolean isParallel() {
+    return true;
+  }
+
   private void lookupDelta(String name, Consumer<Long> writer) {
     Sink<Long> delta_lookup = find(Long.class, writer);
     delta_lookup.allowDefault(false, null);
@@ -2,21 +2,46 @@ package flabbergast;
 
 import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.TreeMap;
 
 /** A Frame in the Flabbergast language. */
 public class MutableFrame extends Frame {
 
-  private TreeMap<String, Object> attributes = new TreeMap<String, Object>();
+  private final AttributeMap attributes;
 
   protected final TaskMaster task_master;
 
-  private ArrayList<Future> unslotted = new ArrayList<Future>();
+  /**
+   * The computations waiting for this frame to be returned. The list may be shared with other
+   * frames, which may be read from other threads, so it is only used while holding its lock. It is
+   * only replaced while holding the lock too, so every user checks it is still current once locked.
+   */
+  private volatile ArrayList<Future> unslotted = new ArrayList<Future>();
 
   public MutableFrame(
       TaskMaster task_master, SourceReference source_ref, Context context, Frame container) {
+    this(task_master, source_ref, context, container, new AttributeMap());
+  }
+
+  /** Create a frame whose attributes will be those of a shape, as an instantiation does. */
+  MutableFrame(
+      TaskMaster task_master,
+      SourceReference source_ref,
+      Context context,
+      Frame container,
+      FrameShape shape) {
+    this(task_master, source_ref, context, container, new AttributeMap(shape));
+  }
+
+  private MutableFrame(
+      TaskMaster task_master,
+      SourceReference source_ref,
+      Context context,
+      Frame container,
+      AttributeMap attributes) {
     super(task_master, source_ref, context, container);
     this.task_master = task_master;
+    this.attributes = attributes;
+    trackNames();
   }
 
   @Override
@@ -34,7 +59,13 @@ public class MutableFrame extends Frame {
     // should
     // be slotted.
     slot();
-    return attributes.containsKey(name) ? attributes.get(name) : null;
+    return attributes.get(name);
+  }
+
+  @Override
+  public Object get(int symbol) {
+    slot();
+    return attributes.get(symbol);
   }
 
   /** Check if an attribute name is present in the frame. */
@@ -45,7 +76,7 @@ public class MutableFrame extends Frame {
 
   @Override
   public Iterator<String> iterator() {
-    return attributes.keySet().iterator();
+    return attributes.iterator();
   }
 
   public void set(long ordinal, Object value) {
@@ -59,6 +90,7 @@ public class MutableFrame extends Frame {
     if (attributes.containsKey(name)) {
       throw new IllegalStateException("Redefinition of attribute " + name + ".");
     }
+    recordName(name);
     if (value instanceof ComputeValue) {
       Future computation =
           ((ComputeValue) value)
@@ -74,7 +106,16 @@ public class MutableFrame extends Frame {
        * since it might depend on lookups that reference this frame.
        * Therefore, put it in a queue for later activation.
        */
-      unslotted.add(computation);
+      while (true) {
+        ArrayList<Future> pending = unslotted;
+        synchronized (pending) {
+          // The list may have been handed to another frame while waiting for the lock.
+          if (unslotted == pending) {
+            pending.add(computation);
+            break;
+          }
+        }
+      }
     } else {
       if (value instanceof MutableFrame) {
         /*
@@ -84,14 +125,37 @@ public class MutableFrame extends Frame {
          * absorbed into another frame.
          */
 
-        MutableFrame other = (MutableFrame) value;
-        unslotted.addAll(other.unslotted);
-        other.unslotted = unslotted;
+        absorb((MutableFrame) value);
       }
       attributes.put(name, value);
     }
   }
 
+  /**
+   * Take the unslotted computations of another frame and share this frame's list with it. The
+   * other frame's list is moved and replaced under its lock, so a computation added concurrently is
+   * either moved or added to this frame's list once the adder sees the replacement.
+   */
+  private void absorb(MutableFrame other) {
+    while (true) {
+      ArrayList<Future> stolen = other.unslotted;
+      ArrayList<Future> pending = unslotted;
+      if (stolen == pending) {
+        return;
+      }
+      synchronized (stolen) {
+        synchronized (pending) {
+          if (other.unslotted == stolen && unslotted == pending) {
+            pending.addAll(stolen);
+            stolen.clear();
+            other.unslotted = pending;
+            return;
+          }
+        }
+      }
+    }
+  }
+
   /**
    * Trigger any unfinished computations contained in this frame to be executed.
    *
@@ -100,10 +164,19 @@ public class MutableFrame extends Frame {
    * visible to the lookup environments of those computations. Only when a frame is “returned” can
    * the computations be started. This should be called before returning to trigger computation.
    */
+  @Override
   public void slot() {
-    for (Future computation : unslotted) {
-      computation.slot();
+    while (true) {
+      ArrayList<Future> pending = unslotted;
+      synchronized (pending) {
+        if (unslotted == pending) {
+          for (Future computation : pending) {
+            computation.slot();
+          }
+          pending.clear();
+          return;
+        }
+      }
     }
-    unslotted.clear();
   }
 }
@@ -0,0 +1,165 @@
+package flabbergast;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Converts numbers to strings, giving exactly the output of {@link String#format(String,
+ * Object...)} for integers and {@link DecimalFormat} for floating-point numbers.
+ *
+ * <p>Integers, and floating-point numbers with no fractional part, are written straight into a byte
+ * array when the locale uses ASCII digits. Other floating-point numbers use a formatter cached per
+ * thread and number of digits.
+ */
+final class NumberFormatting {
+  private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes();
+
+  /** The most fraction digits {@link DecimalFormat} will write for a floating-point number. */
+  private static final int MAX_FRACTION_DIGITS = 340;
+
+  /**
+   * The magnitude below which every whole floating-point number is written directly. Above it,
+   * {@link DecimalFormat} writes only the shortest digits that identify the number and pads the
+   * rest with zeros.
+   */
+  private static final double MAX_WHOLE = 0x1p53;
+
+  /** The formatters of one thread, keyed by digits and whether the output is exponential. */
+  private static class Formats extends HashMap<Long, DecimalFormat> {
+    private static final long serialVersionUID = 1L;
+    Locale locale;
+  }
+
+  private static final ThreadLocal<Formats> formats = ThreadLocal.withInitial(Formats::new);
+
+  private static volatile Locale symbols_locale;
+
+  private static volatile DecimalFormatSymbols symbols;
+
+  private static DecimalFormatSymbols currentSymbols() {
+    Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+    DecimalFormatSymbols current = symbols;
+    if (current == null || !locale.equals(symbols_locale)) {
+      current = DecimalFormatSymbols.getInstance(locale);
+      symbols = current;
+      symbols_locale = locale;
+    }
+    return current;
+  }
+
+  /** Format a number as {@link DecimalFormat} does with the pattern “#.#” or “#.#E0”. */
+  static Stringish formatDouble(double value, boolean exponential, long digits) {
+    DecimalFormatSymbols current = currentSymbols();
+    if (!exponential
+        && digits >= 0
+        && digits <= MAX_FRACTION_DIGITS
+        && value == Math.rint(value)
+        && Math.abs(value) < MAX_WHOLE
+        && current.getZeroDigit() == '0'
+        && current.getMinusSign() == '-'
+        && current.getDecimalSeparator() < 128) {
+      boolean negative = value < 0 || value == 0 && 1 / value < 0;
+      long magnitude = Math.abs((long) value);
+      int whole_length = decimalLength(magnitude);
+      int length = (negative ? 1 : 0) + whole_length + (digits > 0 ? (int) digits + 1 : 0);
+      byte[] output = new byte[length];
+      if (negative) {
+        output[0] = '-';
+      }
+      writeDecimal(output, (negative ? 1 : 0) + whole_length, magnitude);
+      if (digits > 0) {
+        int it = (negative ? 1 : 0) + whole_length;
+        output[it++] = (byte) current.getDecimalSeparator();
+        while (it < length) {
+          output[it++] = '0';
+        }
+      }
+      return Utf8Stringish.ascii(output);
+    }
+    Long key = (long) (int) digits << 1 | (exponential ? 1 : 0);
+    Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+    Formats cache = formats.get();
+    if (!locale.equals(cache.locale)) {
+      cache.clear();
+      cache.locale = locale;
+    }
+    DecimalFormat format = cache.get(key);
+    if (format == null) {
+      format = new DecimalFormat(exponential ? "#.#E0" : "#.#");
+      format.setMinimumFractionDigits((int) digits);
+      format.setMaximumFractionDigits((int) digits);
+      cache.put(key, format);
+    }
+    return new SimpleStringish(format.format(value));
+  }
+
+  /**
+   * Format a number as {@link String#format(String, Object...)} does with “%d”, “%0nd”, “%X” or
+   * “%0nX”.
+   */
+  static Stringish formatInt(long value, boolean hex, long digits) {
+    if (!hex && currentSymbols().getZeroDigit() != '0' || digits > Integer.MAX_VALUE - 24) {
+      return new SimpleStringish(
+          String.format("%" + (digits > 0 ? "0" + digits : "") + (hex ? "X" : "d"), value));
+    }
+    int length;
+    if (hex) {
+      length = Math.max(1, 16 - Long.numberOfLeadingZeros(value) / 4);
+    } else {
+      length = (value < 0 ? 1 : 0) + decimalLength(Math.abs(value));
+    }
+    int width = Math.max(length, (int) digits);
+    byte[] output = new byte[width];
+    if (hex) {
+      long remaining = value;
+      for (int it = width - 1; it >= width - length; it--) {
+        output[it] = HEX_DIGITS[(int) (remaining & 15)];
+        remaining >>>= 4;
+      }
+      for (int it = 0; it < width - length; it++) {
+        output[it] = '0';
+      }
+    } else {
+      int start = 0;
+      if (value < 0) {
+        output[start++] = '-';
+      }
+      for (int it = start; it < width - length + start; it++) {
+        output[it] = '0';
+      }
+      if (value == Long.MIN_VALUE) {
+        // The magnitude does not fit in a long, so write the last digit separately.
+        writeDecimal(output, width - 1, -(value / 10));
+        output[width - 1] = (byte) ('0' - value % 10);
+      } else {
+        writeDecimal(output, width, Math.abs(value));
+      }
+    }
+    return Utf8Stringish.ascii(output);
+  }
+
+  /** The number of decimal digits in a number; the minimum value counts as 19 digits. */
+  private static int decimalLength(long magnitude) {
+    if (magnitude == Long.MIN_VALUE) {
+      return 19;
+    }
+    int length = 1;
+    for (long bound = 10; length < 19 && magnitude >= bound; bound *= 10) {
+      length++;
+    }
+    return length;
+  }
+
+  /** Write the decimal digits of a non-negative number so that the last digit is before end. */
+  private static void writeDecimal(byte[] output, int end, long magnitude) {
+    int it = end;
+    do {
+      output[--it] = (byte) ('0' + magnitude % 10);
+      magnitude /= 10;
+    } while (magnitude > 0);
+  }
+
+  private NumberFormatting() {}
+}
@@ -0,0 +1,69 @@
+package flabbergast;
+
+import java.util.List;
+
+/**
+ * Reduce a list of numbers with an arithmetic operation.
+ *
+ * <p>Integers are combined as integers until the first float, after which the result is a float, so
+ * the result is exactly the one the operator gives, including where integer arithmetic wraps
+ * around. A list of only integers may be split across threads, since wrapping arithmetic gives the
+ * same result in any grouping. Float arithmetic rounds differently when regrouped, so a list with
+ * any float is combined in order, as a Reduce using the operator would.
+ */
+public abstract class NumericReduction extends BaseReduction<Object> {
+  protected NumericReduction(
+      TaskMaster task_master,
+      SourceReference source_ref,
+      Context context,
+      Frame self,
+      Frame container) {
+    super(Object.class, task_master, source_ref, context, self, container);
+  }
+
+  protected abstract double apply(double left, double right);
+
+  protected abstract long apply(long left, long right);
+
+  @Override
+  protected final boolean canRegroup(List<Object> values) {
+    for (Object value : values) {
+      if (!(value instanceof Long)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  protected final void check(String name, Object value) {
+    if (!(value instanceof Long || value instanceof Double)) {
+      throw new IllegalArgumentException(
+          String.format(
+              "“%s” has type %s but expected Int or Float.",
+              name, SupportFunctions.nameForClass(value.getClass())));
+    }
+  }
+
+  @Override
+  protected final Object combine(Object left, Object right) {
+    if (left instanceof Long && right instanceof Long) {
+      return apply((long) (Long) left, (long) (Long) right);
+    }
+    return apply(((Number) left).doubleValue(), ((Number) right).doubleValue());
+  }
+
+  @Override
+  protected final Object empty() {
+    return identity();
+  }
+
+  /** Start from the identity, as a Reduce would, so the sign of a zero float result matches. */
+  @Override
+  protected final Object finish(Object result) {
+    return combine(identity(), result);
+  }
+
+  /** The value that leaves any number unchanged by the operation. */
+  protected abstract Long identity();
+}
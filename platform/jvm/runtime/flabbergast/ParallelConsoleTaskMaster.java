@@ -0,0 +1,36 @@
+package flabbergast;
+
+import java.io.IOException;
+
+/** A task master that runs computations on several threads and reports errors to the console. */
+public class ParallelConsoleTaskMaster extends ParallelTaskMaster {
+  private final ConsoleReporter reporter;
+
+  public ParallelConsoleTaskMaster(ConsoleReporter reporter) {
+    this.reporter = reporter;
+  }
+
+  public ParallelConsoleTaskMaster(ConsoleReporter reporter, int parallelism) {
+    super(parallelism);
+    this.reporter = reporter;
+  }
+
+  public void reportCircularEvaluation() throws IOException {
+    reporter.reportCircularEvaluation(this);
+  }
+
+  @Override
+  public void reportExternalError(String uri, LibraryFailure reason) {
+    reporter.reportExternalError(uri, reason);
+  }
+
+  @Override
+  public void reportLookupError(Lookup lookup, Class<?> fail_type) {
+    reporter.reportLookupError(lookup, fail_type);
+  }
+
+  @Override
+  public void reportOtherError(SourceReference reference, String message) {
+    reporter.reportOtherError(reference, message);
+  }
+}
@@ -0,0 +1,122 @@
+package flabbergast;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Scheduler for computations that runs slotted computations on a work-stealing pool.
+ *
+ * <p>Computations communicate only through {@link Future#listen(ConsumeResult)}, so the dataflow is
+ * the same as the single-threaded scheduler: a computation is run when it is slotted and run again
+ * each time it is re-slotted by a completed dependency. A computation is never run on two threads
+ * at once. Computations slotted before {@link #run()} are held until it is called.
+ */
+public abstract class ParallelTaskMaster extends TaskMaster {
+  private final ThreadLocal<int[]> delivery_depth = ThreadLocal.withInitial(() -> new int[1]);
+
+  private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+  private final ForkJoinPool pool;
+
+  private volatile boolean running;
+
+  public ParallelTaskMaster() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  public ParallelTaskMaster(int parallelism) {
+    pool = new ForkJoinPool(parallelism);
+  }
+
+  /**
+   * Pass the result of a completed computation to a listener.
+   *
+   * <p>The nesting depth is tracked per worker thread; a delivery that would nest too deeply is
+   * forked as a new task, which starts on an empty stack.
+   */
+  @Override
+  void deliver(final ConsumeResult consumer, final Object result) {
+    if (!running) {
+      super.deliver(consumer, result);
+      return;
+    }
+    if (delivery_depth.get()[0] >= getMaxDeliveryDepth()) {
+      execute(() -> deliverNow(consumer, result));
+    } else {
+      deliverNow(consumer, result);
+    }
+  }
+
+  private void deliverNow(ConsumeResult consumer, Object result) {
+    int[] depth = delivery_depth.get();
+    depth[0]++;
+    try {
+      consumer.consume(result);
+    } finally {
+      depth[0]--;
+    }
+  }
+
+  private void execute(final Runnable action) {
+    ForkJoinTask<?> task =
+        ForkJoinTask.adapt(
+            () -> {
+              try {
+                action.run();
+              } catch (RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+              }
+            });
+    if (ForkJoinTask.getPool() == pool) {
+      task.fork();
+    } else {
+      pool.execute(task);
+    }
+  }
+
+  /**
+   * Perform computations until the Flabbergast program is complete or deadlocked.
+   *
+   * <p>If any computation throws, the first exception is rethrown once the pool is idle.
+   */
+  @Override
+  public void run() {
+    prepareHandlers();
+    running = true;
+    try {
+      Runnable delivery;
+      while ((delivery = pollDelivery()) != null) {
+        execute(delivery);
+      }
+      Future computation;
+      while ((computation = pollComputation()) != null) {
+        execute(computation::compute);
+      }
+      pool.awaitQuiescence(Long.MAX_VALUE, TimeUnit.DAYS);
+    } finally {
+      running = false;
+    }
+    Throwable e = failure.getAndSet(null);
+    if (e instanceof RuntimeException) {
+      throw (RuntimeException) e;
+    } else if (e instanceof Error) {
+      throw (Error) e;
+    }
+  }
+
+  @Override
+  protected void schedule(Future computation) {
+    if (running) {
+      execute(computation::compute);
+    } else {
+      super.schedule(computation);
+    }
+  }
+
+  /** Stop the worker threads. No computations may be run after this. */
+  public void shutdown() {
+    pool.shutdown();
+  }
+}
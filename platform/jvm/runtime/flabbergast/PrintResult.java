@@ -1,7 +1,8 @@
 package flabbergast;
 
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 
 public class PrintResult extends Future {
   private final String output_filename;
@@ -38,26 +39,27 @@ public class PrintResult extends Future {
                       || value instanceof Boolean
                       || value instanceof Double) {
                     success = true;
-                    if (output_filename == null) {
-                      if (value instanceof Stringish) {
-                        System.out.print(value);
-                      } else if (value instanceof Boolean) {
-                        System.out.println((Boolean) value ? "True" : "False");
+                    Stringish text =
+                        value instanceof Stringish
+                            ? (Stringish) value
+                            : new SimpleStringish(
+                                (output_filename == null && value instanceof Boolean
+                                        ? ((Boolean) value ? "True" : "False")
+                                        : value.toString())
+                                    + "\n");
+                    try {
+                      if (output_filename == null) {
+                        System.out.flush();
+                        text.writeUtf8(System.out);
                       } else {
-                        System.out.println(value);
-                      }
-                    } else {
-                      try {
-                        FileWriter fw = new FileWriter(output_filename);
-                        fw.write(value.toString());
-                        if (!(value instanceof Stringish)) {
-                          fw.write("\n");
+                        try (FileChannel channel =
+                            new FileOutputStream(output_filename).getChannel()) {
+                          text.writeUtf8(channel);
                         }
-                        fw.close();
-                      } catch (IOException e) {
-                        System.err.println(e.getMessage());
-                        e.printStackTrace(System.err);
                       }
+                    } catch (IOException e) {
+                      System.err.println(e.getMessage());
+                      e.printStackTrace(System.err);
                     }
                   } else {
                     System.err.printf(
@@ -0,0 +1,83 @@
+package flabbergast;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A frame containing the integers in a range, as produced by “Through”.
+ *
+ * <p>The values and their ordinal names are computed when they are requested rather than stored, so
+ * a large range costs no more than a small one until it is used.
+ */
+public class RangeFrame extends Frame {
+  /** The number of items in a non-empty range, or Long.MAX_VALUE if there are more than that. */
+  static long length(long start, long end) {
+    try {
+      return Math.addExact(Math.subtractExact(end, start), 1);
+    } catch (ArithmeticException e) {
+      return Long.MAX_VALUE;
+    }
+  }
+
+  private final int length;
+  private final long start;
+
+  public RangeFrame(
+      TaskMaster task_master,
+      SourceReference source_ref,
+      long start,
+      long end,
+      Context context,
+      Frame container) {
+    super(task_master, source_ref, context, container);
+    long length = end < start ? 0 : length(start, end);
+    if (length > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          String.format("The range %d Through %d has too many items for a frame.", start, end));
+    }
+    this.start = start;
+    this.length = (int) length;
+  }
+
+  @Override
+  public int count() {
+    return length;
+  }
+
+  @Override
+  public Object get(String name) {
+    long index = SupportFunctions.parseOrdinalName(name);
+    return index > 0 && index <= length ? start + index - 1 : null;
+  }
+
+  @Override
+  public boolean has(String name) {
+    long index = SupportFunctions.parseOrdinalName(name);
+    return index > 0 && index <= length;
+  }
+
+  @Override
+  public Iterator<String> iterator() {
+    return new Iterator<String>() {
+      private long index = 0;
+
+      @Override
+      public boolean hasNext() {
+        return index < length;
+      }
+
+      @Override
+      public String next() {
+        if (index >= length) {
+          throw new NoSuchElementException();
+        }
+        return SupportFunctions.ordinalNameStr(++index);
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+}
@@ -3,7 +3,6 @@ package flabbergast;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.TreeMap;
 
 /** A Frame wrapper over a Java object. */
 public class ReflectedFrame extends Frame {
@@ -14,7 +13,7 @@ public class ReflectedFrame extends Frame {
 
   public static <T> ReflectedFrame create(
       String id, T backing, Map<String, Transform<T>> accessors) {
-    TreeMap<String, Object> attributes = new TreeMap<String, Object>();
+    AttributeMap attributes = new AttributeMap();
     for (Entry<String, Transform<T>> entry : accessors.entrySet()) {
       Object result = entry.getValue().invoke(backing);
       if (result == null) {
@@ -46,15 +45,19 @@ public class ReflectedFrame extends Frame {
     return create(SupportFunctions.ordinalNameStr(task_master.nextId()), backing, accessors);
   }
 
-  private final TreeMap<String, Object> attributes;
+  private final AttributeMap attributes;
 
   private final Object backing;
 
   private ReflectedFrame(
-      String id, SourceReference source_ref, Object backing, TreeMap<String, Object> attributes) {
+      String id, SourceReference source_ref, Object backing, AttributeMap attributes) {
     super(id, source_ref, null, null);
     this.backing = backing;
     this.attributes = attributes;
+    trackNames();
+    for (String name : attributes) {
+      recordName(name);
+    }
   }
 
   @Override
@@ -68,7 +71,12 @@ public class ReflectedFrame extends Frame {
    */
   @Override
   public Object get(String name) {
-    return attributes.containsKey(name) ? attributes.get(name) : null;
+    return attributes.get(name);
+  }
+
+  @Override
+  public Object get(int symbol) {
+    return attributes.get(symbol);
   }
 
   public Object getBacking() {
@@ -83,13 +91,14 @@ public class ReflectedFrame extends Frame {
 
   @Override
   public Iterator<String> iterator() {
-    return attributes.keySet().iterator();
+    return attributes.iterator();
   }
 
   public void set(String name, Object value) {
     if (attributes.containsKey(name)) {
       throw new IllegalArgumentException();
     }
+    recordName(name);
     attributes.put(name, value);
   }
 }
@@ -6,19 +6,41 @@ import java.util.Iterator;
 import java.util.Stack;
 
 public class SimpleStringish extends Stringish {
+  /** The codepoint index, which is only built if needed and the string has surrogate pairs. */
+  private CodepointIndex index;
+
   private long num_codepoints;
   private String str;
+  private long utf8_length = -1;
 
   public SimpleStringish(String str) {
     this.str = str;
     num_codepoints = str.codePointCount(0, str.length());
   }
 
+  @Override
+  long codepointToUtf16(long codepoint) {
+    if (num_codepoints == str.length()) {
+      return codepoint;
+    }
+    return getIndex().toUtf16(str, codepoint);
+  }
+
   @Override
   int getCount() {
     return 1;
   }
 
+  private CodepointIndex getIndex() {
+    // Racing threads build the same index, so the last one written is as good as any.
+    CodepointIndex current = index;
+    if (current == null) {
+      current = CodepointIndex.create(str, num_codepoints);
+      index = current;
+    }
+    return current;
+  }
+
   @Override
   public long getLength() {
     return num_codepoints;
@@ -31,11 +53,14 @@ public class SimpleStringish extends Stringish {
 
   @Override
   public long getUtf8Length() {
-    try {
-      return str.getBytes("UTF-8").length;
-    } catch (UnsupportedEncodingException e) {
-      return -1;
+    if (utf8_length < 0) {
+      try {
+        utf8_length = str.getBytes("UTF-8").length;
+      } catch (UnsupportedEncodingException e) {
+        return -1;
+      }
     }
+    return utf8_length;
   }
 
   @Override
@@ -61,6 +86,19 @@ public class SimpleStringish extends Stringish {
     };
   }
 
+  @Override
+  public String toString() {
+    return str;
+  }
+
+  @Override
+  long utf16ToCodepoint(long offset) {
+    if (num_codepoints == str.length()) {
+      return offset;
+    }
+    return getIndex().toCodepoint(str, (int) offset);
+  }
+
   @Override
   public String ramblingNext(Stack<GetNext<String>> stack) {
     return str;
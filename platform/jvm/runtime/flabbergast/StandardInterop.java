@@ -13,6 +13,7 @@ public class StandardInterop extends Interop {
   public static final StandardInterop INSTANCE = new StandardInterop();
 
   private StandardInterop() {
+    super(true);
     final SourceReference time_src = new NativeSourceReference("<the big bang>");
     final Charset UTF_32BE = Charset.forName("UTF-32BE");
     final Charset UTF_32LE = Charset.forName("UTF-32LE");
@@ -194,6 +195,7 @@ public class StandardInterop extends Interop {
         "exponential",
         Long.class,
         "digits");
+    add("utils/group_by", GroupBy::new);
     addMap(
         Stringish.class,
         Long.class,
@@ -212,6 +214,9 @@ public class StandardInterop extends Interop {
         (x, radix) -> Long.parseLong(x, radix.intValue()),
         Long.class,
         "radix");
+    add("utils/reduce/product", ProductReduction::new);
+    add("utils/reduce/str_concat", StrConcatReduction::new);
+    add("utils/reduce/sum", SumReduction::new);
     addMap(
         String.class,
         String.class,
@@ -259,11 +264,7 @@ public class StandardInterop extends Interop {
         x -> new String(x, StandardCharsets.UTF_16LE));
     addMap(String.class, byte[].class, "utils/str/from/utf32be", x -> new String(x, UTF_32BE));
     addMap(String.class, byte[].class, "utils/str/from/utf32le", x -> new String(x, UTF_32LE));
-    addMap(
-        String.class,
-        byte[].class,
-        "utils/str/from/utf8",
-        x -> new String(x, StandardCharsets.UTF_8));
+    addMap(Stringish.class, byte[].class, "utils/str/from/utf8", Utf8Stringish::new);
     addMap(Boolean.class, Stringish.class, "utils/str/identifier", TaskMaster::verifySymbol);
     addMap(Long.class, Stringish.class, "utils/str/length/utf16", Stringish::getUtf16Length);
     addMap(Long.class, Stringish.class, "utils/str/length/utf8", Stringish::getUtf8Length);
@@ -304,6 +305,7 @@ public class StandardInterop extends Interop {
     addMap(byte[].class, Stringish.class, "utils/str/to/utf8", Stringish::toUtf8);
     addMap(String.class, String.class, "utils/str/trim", String::trim);
     addMap(String.class, String.class, "utils/str/upper_case", String::toUpperCase);
+    add("utils/top_by", TopBy::new);
     Escape.createUnicodeActions(this::add);
   }
 }
@@ -0,0 +1,49 @@
+package flabbergast;
+
+import java.util.List;
+
+/**
+ * Join a list of strings with a delimiter between them.
+ *
+ * <p>The pieces are appended to a balanced rope, so long results are not copied for every piece.
+ * Joining is associative, so long lists are split across threads and give the same string.
+ */
+public class StrConcatReduction extends BaseReduction<Stringish> {
+  private static final Stringish EMPTY = new SimpleStringish("");
+  private Stringish delimiter;
+
+  public StrConcatReduction(
+      TaskMaster task_master,
+      SourceReference source_ref,
+      Context context,
+      Frame self,
+      Frame container) {
+    super(Stringish.class, task_master, source_ref, context, self, container);
+  }
+
+  @Override
+  protected boolean canRegroup(List<Stringish> values) {
+    return true;
+  }
+
+  @Override
+  protected Stringish combine(Stringish left, Stringish right) {
+    if (delimiter.getLength() > 0) {
+      left = Stringish.concat(left, delimiter);
+    }
+    return Stringish.concat(left, right);
+  }
+
+  @Override
+  protected Stringish empty() {
+    return EMPTY;
+  }
+
+  @Override
+  protected void setup() {
+    super.setup();
+    Sink<Stringish> delimiter_lookup = find(Stringish.class, x -> delimiter = x);
+    delimiter_lookup.allowDefault(false, null);
+    delimiter_lookup.lookup("delimiter");
+  }
+}
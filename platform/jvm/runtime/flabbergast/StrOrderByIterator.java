@@ -0,0 +1,20 @@
+package flabbergast;
+
+/** Order keys by string values. */
+public class StrOrderByIterator extends BaseOrderByIterator {
+  private final Stringish[] orders;
+
+  public StrOrderByIterator(Iterable<String>[] inputs) {
+    super(inputs);
+    orders = new Stringish[getSize()];
+  }
+
+  @Override
+  protected int compare(int left, int right) {
+    return orders[left].compareTo(orders[right]);
+  }
+
+  public void setupReturn(Stringish order) {
+    orders[getSetupIndex()] = order;
+  }
+}
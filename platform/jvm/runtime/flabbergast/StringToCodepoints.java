@@ -16,8 +16,9 @@ public class StringToCodepoints extends BaseMapFunctionInterop<String, Frame> {
         new MutableFrame(
             task_master, source_reference,
             context, container);
-    for (int it = 0; it < input.length(); it++) {
-      frame.set(SupportFunctions.ordinalNameStr(it + 1), (long) input.codePointAt(it));
+    long ordinal = 1;
+    for (int it = 0; it < input.length(); it += Character.charCount(input.codePointAt(it))) {
+      frame.set(ordinal++, (long) input.codePointAt(it));
     }
     return frame;
   }
@@ -1,33 +1,45 @@
 package flabbergast;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
-import java.text.Collator;
-import java.text.DecimalFormat;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.Iterator;
 import java.util.Stack;
 
 public abstract class Stringish
     implements Comparable<Stringish>, Iterable<String>, RamblingIterator.GetNext<String> {
+  private static final byte ALNUM_UNKNOWN = 0;
+  private static final byte ALNUM_YES = 1;
+  private static final byte ALNUM_NO = 2;
+
   public static Stringish[] BOOLEANS =
       new Stringish[] {new SimpleStringish("False"), new SimpleStringish("True")};
 
+  /** Whether the string is made only of ASCII letters and digits, once known. */
+  private byte alnum = ALNUM_UNKNOWN;
+
+  /** The collation sort key, once computed. Racing threads compute the same key. */
+  private byte[] sort_key;
+
+  /** Join two strings, keeping the resulting rope balanced. */
+  public static Stringish concat(Stringish head, Stringish tail) {
+    return ConcatStringish.join(head, tail);
+  }
+
   public static Stringish fromCodepoint(long codepoint) {
     return new SimpleStringish(new String(new int[] {(int) codepoint}, 0, 1));
   }
 
   public static Stringish fromDouble(double value, boolean exponential, long digits) {
-    DecimalFormat format = new DecimalFormat(exponential ? "#.#E0" : "#.#");
-    format.setMinimumFractionDigits((int) digits);
-    format.setMaximumFractionDigits((int) digits);
-    return new SimpleStringish(format.format(value));
+    return NumberFormatting.formatDouble(value, exponential, digits);
   }
 
   public static Stringish fromInt(long value, boolean hex, long digits) {
-    return new SimpleStringish(
-        String.format("%" + (digits > 0 ? "0" + digits : "") + (hex ? "X" : "d"), value));
+    return NumberFormatting.formatInt(value, hex, digits);
   }
 
   public static Stringish fromObject(Object o) {
@@ -46,45 +58,49 @@ public abstract class Stringish
     return null;
   }
 
+  /** Get a shared string with the text given, such as a literal in compiled code. */
+  public static Stringish intern(String str) {
+    return StringishPool.intern(str);
+  }
+
+  /** Choose whether strings with the same text are shared. Sharing is on by default. */
+  public static void setPooling(boolean pooling) {
+    StringishPool.setEnabled(pooling);
+  }
+
+  /** Append the codepoints from start, inclusive, to end, exclusive. */
+  void appendCodepoints(StringBuilder builder, long start, long end) {
+    String str = toString();
+    builder.append(str, (int) codepointToUtf16(start), (int) codepointToUtf16(end));
+  }
+
+  /** The characters of the string, which may be a view rather than a copy. */
+  CharSequence chars() {
+    return toString();
+  }
+
+  /** The UTF-16 offset of a codepoint. */
+  long codepointToUtf16(long codepoint) {
+    return toString().offsetByCodePoints(0, (int) codepoint);
+  }
+
   @Override
   public int compareTo(Stringish other) {
-    Collator collator = Collator.getInstance();
-    Iterator<String> this_stream = iterator();
-    Iterator<String> other_stream = other.iterator();
-    Ptr<Integer> this_offset = new Ptr<Integer>(0);
-    Ptr<Integer> other_offset = new Ptr<Integer>(0);
-    Ptr<String> this_current = new Ptr<String>();
-    Ptr<String> other_current = new Ptr<String>();
-    int result = 0;
-    boolean first = true;
-    while (result == 0) {
-      boolean this_empty =
-          updateIterator(
-              this_stream, this_offset,
-              this_current, first);
-      boolean other_empty =
-          updateIterator(
-              other_stream, other_offset,
-              other_current, first);
-      first = false;
-      if (this_empty) {
-        return other_empty ? 0 : -1;
-      }
-      if (other_empty) {
-        return 1;
-      }
-      int length =
-          Math.min(
-              this_current.get().length() - this_offset.get(),
-              other_current.get().length() - other_offset.get());
-      result =
-          collator.compare(
-              this_current.get().substring(this_offset.get(), this_offset.get() + length),
-              other_current.get().substring(other_offset.get(), other_offset.get() + length));
-      this_offset.set(this_offset.get() + length);
-      other_offset.set(other_offset.get() + length);
+    if (this == other) {
+      return 0;
     }
-    return result;
+    if (isAlnum() && other.isAlnum()) {
+      return Collation.compareAlnum(chars(), other.chars());
+    }
+    return Collation.compareKeys(getSortKey(), other.getSortKey());
+  }
+
+  /** Whether the string only contains characters the collation fast path handles. */
+  private boolean isAlnum() {
+    if (alnum == ALNUM_UNKNOWN) {
+      alnum = Collation.isAlnum(chars()) ? ALNUM_YES : ALNUM_NO;
+    }
+    return alnum == ALNUM_YES;
   }
 
   public Long find(String str, long start, boolean backward) {
@@ -93,23 +109,37 @@ public abstract class Stringish
     if (real_start < 0 || real_start > this.getLength()) {
       return null;
     }
-    String this_str = this.toString();
-    int this_str_start = this_str.offsetByCodePoints(0, (int) real_start);
-    long pos =
-        backward
-            ? this_str.lastIndexOf(str, this_str_start)
-            : this_str.indexOf(str, this_str_start);
-    return pos == -1 ? null : pos;
+    int pos = indexOf(str, (int) codepointToUtf16(real_start), backward);
+    return pos == -1 ? null : utf16ToCodepoint(pos);
   }
 
   abstract int getCount();
 
+  /** The collation sort key, computed on first use. */
+  byte[] getSortKey() {
+    byte[] key = sort_key;
+    if (key == null) {
+      key = Collation.sortKey(toString());
+      sort_key = key;
+    }
+    return key;
+  }
+
   public abstract long getLength();
 
   public abstract long getUtf16Length();
 
   public abstract long getUtf8Length();
 
+  /**
+   * The UTF-16 offset of a substring, searching from a UTF-16 offset, or -1 if it does not occur.
+   * This behaves as {@link String#indexOf(String, int)} or {@link String#lastIndexOf(String, int)}.
+   */
+  int indexOf(String str, int from, boolean backward) {
+    String this_str = toString();
+    return backward ? this_str.lastIndexOf(str, from) : this_str.indexOf(str, from);
+  }
+
   @Override
   public Iterator<String> iterator() {
     return new RamblingIterator<String>(this);
@@ -126,22 +156,25 @@ public abstract class Stringish
     if (original_start > this.getLength() || start < 0) {
       return null;
     }
-    String this_str = this.toString();
-    int real_start = this_str.offsetByCodePoints(0, (int) original_start);
-    int real_end;
+    long real_end;
     if (length != null) {
       if (length < 0) {
         throw new IllegalArgumentException("“length” must be non-negative.");
       }
-      real_end = this_str.offsetByCodePoints(0, (int) (original_start + length));
+      real_end = original_start + length;
     } else {
       long original_end = (end >= 0) ? end : (this.getLength() + end);
       if (original_end < original_start) {
         return null;
       }
-      real_end = this_str.offsetByCodePoints(0, (int) original_end);
+      real_end = original_end;
     }
-    return this_str.substring(real_start, real_end);
+    if (real_end > this.getLength()) {
+      throw new IndexOutOfBoundsException();
+    }
+    StringBuilder builder = new StringBuilder();
+    appendCodepoints(builder, original_start, real_end);
+    return builder.toString();
   }
 
   @Override
@@ -155,6 +188,11 @@ public abstract class Stringish
     }
   }
 
+  /** The codepoint at a UTF-16 offset. */
+  long utf16ToCodepoint(long offset) {
+    return toString().codePointCount(0, (int) offset);
+  }
+
   public final byte[] toUtf16(boolean big) {
     try {
       return toString().getBytes("UTF-16" + (big ? "BE" : "LE"));
@@ -171,7 +209,7 @@ public abstract class Stringish
     }
   }
 
-  public final byte[] toUtf8() {
+  public byte[] toUtf8() {
     try {
       return toString().getBytes("UTF-8");
     } catch (UnsupportedEncodingException e) {
@@ -179,18 +217,27 @@ public abstract class Stringish
     }
   }
 
-  private boolean updateIterator(
-      Iterator<String> iterator, Ptr<Integer> offset, Ptr<String> current, boolean first) {
-    // This is in a loop to consume any empty strings at the end of input.
-    while (first || offset.get() >= current.get().length()) {
-      if (!iterator.hasNext()) {
-        return true;
-      }
-      current.set(iterator.next());
-      offset.set(0);
-      first = false;
+  /**
+   * Write the string as UTF-8 to a channel.
+   *
+   * <p>Each piece of the string is written directly through a buffer kept by the thread, so the
+   * whole string is never built in memory.
+   */
+  public final void writeUtf8(WritableByteChannel channel) throws IOException {
+    Utf8Writer.write(this, channel);
+  }
+
+  /** Write the string as UTF-8 to a stream. */
+  public final void writeUtf8(OutputStream stream) throws IOException {
+    writeUtf8(Channels.newChannel(stream));
+    stream.flush();
+  }
+
+  /** Write each piece of the string, in order. */
+  void writeUtf8Pieces(Utf8Writer writer) throws IOException {
+    for (String piece : this) {
+      writer.writeChars(piece);
     }
-    return false;
   }
 
   public final void write(Writer writer) throws IOException {
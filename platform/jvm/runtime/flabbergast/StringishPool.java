@@ -0,0 +1,83 @@
+package flabbergast;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A pool of strings, so that the same text read or written in many places is held once.
+ *
+ * <p>The pool only holds its strings weakly; once no frame refers to a string, it is dropped from
+ * the pool. Long strings are rarely repeated, so they are not pooled and their text is not kept
+ * again as a key. Pooling can be turned off, in which case every string is created afresh.
+ */
+final class StringishPool {
+  private static final class Entry extends WeakReference<Stringish> {
+    final String key;
+
+    Entry(String key, Stringish value) {
+      super(value, queue);
+      this.key = key;
+    }
+  }
+
+  /** The longest string, in UTF-16 units, that will be pooled. */
+  static final int MAX_LENGTH = 64;
+
+  private static final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+  private static final ReferenceQueue<Stringish> queue = new ReferenceQueue<>();
+
+  private static volatile boolean enabled = true;
+
+  /** Remove the entries of strings that have been collected. */
+  private static void expunge() {
+    Reference<? extends Stringish> reference;
+    while ((reference = queue.poll()) != null) {
+      Entry entry = (Entry) reference;
+      entries.remove(entry.key, entry);
+    }
+  }
+
+  /** Get the pooled string with the text given, creating it as a {@link SimpleStringish}. */
+  static Stringish intern(String str) {
+    return intern(str, SimpleStringish::new);
+  }
+
+  /** Get the pooled string with the text given, creating it from the text if there is none. */
+  static Stringish intern(String str, Function<String, Stringish> create) {
+    if (!enabled || str.length() > MAX_LENGTH) {
+      return create.apply(str);
+    }
+    expunge();
+    Entry entry = entries.get(str);
+    Stringish value = entry == null ? null : entry.get();
+    if (value != null) {
+      return value;
+    }
+    Stringish created = create.apply(str);
+    Entry fresh = new Entry(str, created);
+    while (true) {
+      Entry existing = entries.putIfAbsent(str, fresh);
+      if (existing == null) {
+        return created;
+      }
+      Stringish other = existing.get();
+      if (other != null) {
+        return other;
+      }
+      if (entries.replace(str, existing, fresh)) {
+        return created;
+      }
+    }
+  }
+
+  /** Turn pooling on or off. Strings already pooled stay shared. */
+  static void setEnabled(boolean enabled) {
+    StringishPool.enabled = enabled;
+  }
+
+  private StringishPool() {}
+}
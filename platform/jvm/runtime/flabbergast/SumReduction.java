@@ -0,0 +1,27 @@
+package flabbergast;
+
+public class SumReduction extends NumericReduction {
+  public SumReduction(
+      TaskMaster task_master,
+      SourceReference source_ref,
+      Context context,
+      Frame self,
+      Frame container) {
+    super(task_master, source_ref, context, self, container);
+  }
+
+  @Override
+  protected double apply(double left, double right) {
+    return left + right;
+  }
+
+  @Override
+  protected long apply(long left, long right) {
+    return left + right;
+  }
+
+  @Override
+  protected Long identity() {
+    return 0L;
+  }
+}
@@ -1,8 +1,26 @@
 package flabbergast;
 
+import java.util.Arrays;
+
 public class SupportFunctions {
   private static char[] symbols = createOrdinalSymbols();
 
+  private static final int ORDINAL_LENGTH =
+      (int) (Long.SIZE * Math.log(2) / Math.log(symbols.length)) + 1;
+
+  /** The number of ordinal names, starting from zero, that are created in advance. */
+  private static final int ORDINAL_CACHE_SIZE = 1024;
+
+  private static final String[] ordinal_strs = new String[ORDINAL_CACHE_SIZE];
+  private static final Stringish[] ordinals = new Stringish[ORDINAL_CACHE_SIZE];
+
+  static {
+    for (int it = 0; it < ORDINAL_CACHE_SIZE; it++) {
+      ordinal_strs[it] = encodeOrdinalName(it);
+      ordinals[it] = new SimpleStringish(ordinal_strs[it]);
+    }
+  }
+
   private static char[] createOrdinalSymbols() {
     char[] array = new char[62];
     for (int it = 0; it < 10; it++) {
@@ -43,24 +61,62 @@ public class SupportFunctions {
     return t.getSimpleName();
   }
 
-  public static Stringish ordinalName(long id) {
-    return new SimpleStringish(ordinalNameStr(id));
-  }
-
-  public static String ordinalNameStr(long id) {
-    char[] id_str = new char[(int) (Long.SIZE * Math.log(2) / Math.log(symbols.length)) + 1];
+  private static String encodeOrdinalName(long id) {
+    char[] id_str = new char[ORDINAL_LENGTH];
     if (id < 0) {
       id_str[0] = 'e';
       id = Long.MAX_VALUE + id;
     } else {
       id_str[0] = 'f';
     }
-    for (int it = id_str.length - 1; it > 0; it--) {
+    int it = id_str.length - 1;
+    for (; it > 0 && id > 0; it--) {
       id_str[it] = symbols[(int) (id % symbols.length)];
       id = id / symbols.length;
     }
+    Arrays.fill(id_str, 1, it + 1, symbols[0]);
     return new String(id_str);
   }
 
+  public static Stringish ordinalName(long id) {
+    if (id >= 0 && id < ORDINAL_CACHE_SIZE) {
+      return ordinals[(int) id];
+    }
+    return StringishPool.intern(encodeOrdinalName(id));
+  }
+
+  public static String ordinalNameStr(long id) {
+    if (id >= 0 && id < ORDINAL_CACHE_SIZE) {
+      return ordinal_strs[(int) id];
+    }
+    return encodeOrdinalName(id);
+  }
+
+  /**
+   * Find the non-negative number encoded by an ordinal name, or -1 if the name is not one produced
+   * by {@link #ordinalNameStr(long)} for a non-negative number.
+   */
+  static long parseOrdinalName(String name) {
+    if (name.length() != ORDINAL_LENGTH || name.charAt(0) != 'f') {
+      return -1;
+    }
+    long id = 0;
+    for (int it = 1; it < name.length(); it++) {
+      char c = name.charAt(it);
+      int digit;
+      if (c >= '0' && c <= '9') {
+        digit = c - '0';
+      } else if (c >= 'A' && c <= 'Z') {
+        digit = c - 'A' + 10;
+      } else if (c >= 'a' && c <= 'z') {
+        digit = c - 'a' + 36;
+      } else {
+        return -1;
+      }
+      id = id * symbols.length + digit;
+    }
+    return id;
+  }
+
   private SupportFunctions() {}
 }
@@ -0,0 +1,50 @@
+package flabbergast;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dense integer identifiers for attribute names.
+ *
+ * <p>The compiler interns every attribute name it knows when the generated class is initialised, so
+ * the generated code can refer to names by number. The identifiers are only stable for the life of
+ * the process and must never be persisted. The canonical string for a symbol is the JVM-interned
+ * one, so it is identical to any string constant with the same name.
+ */
+public final class SymbolTable {
+  private static final ConcurrentHashMap<String, Integer> ids =
+      new ConcurrentHashMap<String, Integer>();
+
+  private static volatile String[] names = new String[256];
+
+  private static int size = 0;
+
+  /** The canonical name for a symbol. */
+  public static String getName(int symbol) {
+    return names[symbol];
+  }
+
+  /** Get the symbol for a name, allocating one if this name has not been seen before. */
+  public static int intern(String name) {
+    Integer symbol = ids.get(name);
+    if (symbol != null) {
+      return symbol;
+    }
+    synchronized (SymbolTable.class) {
+      symbol = ids.get(name);
+      if (symbol != null) {
+        return symbol;
+      }
+      String[] current = names;
+      if (size == current.length) {
+        current = Arrays.copyOf(current, current.length * 2);
+      }
+      current[size] = name.intern();
+      names = current;
+      ids.put(name, size);
+      return size++;
+    }
+  }
+
+  private SymbolTable() {}
+}
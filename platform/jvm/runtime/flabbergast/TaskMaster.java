@@ -4,13 +4,13 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Queue;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /** Scheduler for computations. */
@@ -81,12 +81,20 @@ public abstract class TaskMaster implements Iterable<Lookup> {
 
   private Queue<Future> computations = new LinkedList<Future>();
 
+  /** Results that were not passed to their listeners because the stack was too deep. */
+  private Queue<Runnable> deferred_deliveries = new LinkedList<Runnable>();
+
+  private int delivery_depth = 0;
+
   private Map<String, Future> external_cache = new HashMap<String, Future>();
 
   private ArrayList<UriHandler> handlers = new ArrayList<UriHandler>();
 
   /** These are computations that have not completed. */
-  private Set<Lookup> inflight = new HashSet<Lookup>();
+  private Set<Lookup> inflight =
+      Collections.newSetFromMap(new ConcurrentHashMap<Lookup, Boolean>());
+
+  private int max_delivery_depth = 64;
 
   private AtomicInteger next_id = new AtomicInteger();
 
@@ -120,11 +128,11 @@ public abstract class TaskMaster implements Iterable<Lookup> {
     }
   }
 
-  public void addUriHandler(UriHandler handler) {
+  public synchronized void addUriHandler(UriHandler handler) {
     handlers.add(handler);
   }
 
-  public void addUriHandler(UriLoader handler) {
+  public synchronized void addUriHandler(UriLoader handler) {
     handlers.add(new UriInstantiator(handler));
   }
 
@@ -133,21 +141,30 @@ public abstract class TaskMaster implements Iterable<Lookup> {
   }
 
   public void getExternal(String uri, ConsumeResult target) {
+    resolveExternal(uri).listen(target);
+  }
+
+  /**
+   * Find the computation for an external URI, creating it if it has not been requested before.
+   *
+   * <p>The cache is shared by all computations, so this is serialised; listening to the result is
+   * not.
+   */
+  private synchronized Future resolveExternal(String uri) {
     if (external_cache.containsKey(uri)) {
-      external_cache.get(uri).listen(target);
-      return;
+      return external_cache.get(uri);
     }
     if (uri.startsWith("lib:")) {
       if (uri.length() < 5) {
         reportExternalError(uri, LibraryFailure.BAD_NAME);
         external_cache.put(uri, BlackholeFuture.INSTANCE);
-        return;
+        return BlackholeFuture.INSTANCE;
       }
       for (int it = 5; it < uri.length(); it++) {
         if (uri.charAt(it) != '/' && !Character.isLetterOrDigit(uri.charAt(it))) {
           reportExternalError(uri, LibraryFailure.BAD_NAME);
           external_cache.put(uri, BlackholeFuture.INSTANCE);
-          return;
+          return BlackholeFuture.INSTANCE;
         }
       }
     }
@@ -158,16 +175,46 @@ public abstract class TaskMaster implements Iterable<Lookup> {
       if (reason.get() != null && reason.get() != LibraryFailure.MISSING) {
         reportExternalError(uri, reason.get());
         external_cache.put(uri, BlackholeFuture.INSTANCE);
-        return;
+        return BlackholeFuture.INSTANCE;
       }
       if (computation != null) {
         external_cache.put(uri, computation);
-        computation.listen(target);
-        return;
+        return computation;
       }
     }
     reportExternalError(uri, LibraryFailure.MISSING);
     external_cache.put(uri, BlackholeFuture.INSTANCE);
+    return BlackholeFuture.INSTANCE;
+  }
+
+  /**
+   * Pass the result of a completed computation to a listener.
+   *
+   * <p>Listeners may complete other computations, which deliver their own results, so chains of
+   * lookups can recurse arbitrarily deeply. Deliveries nested up to the maximum depth are made
+   * directly; beyond that, they are queued and made from the scheduler loop once the stack has
+   * unwound.
+   */
+  void deliver(final ConsumeResult consumer, final Object result) {
+    if (delivery_depth >= max_delivery_depth) {
+      deferred_deliveries.offer(() -> deliverNow(consumer, result));
+    } else {
+      deliverNow(consumer, result);
+    }
+  }
+
+  private void deliverNow(ConsumeResult consumer, Object result) {
+    delivery_depth++;
+    try {
+      consumer.consume(result);
+    } finally {
+      delivery_depth--;
+    }
+  }
+
+  /** The number of deliveries that may be nested before further deliveries are queued. */
+  public int getMaxDeliveryDepth() {
+    return max_delivery_depth;
   }
 
   public boolean hasInflightLookups() {
@@ -203,22 +250,61 @@ public abstract class TaskMaster implements Iterable<Lookup> {
   /** Report an error during execution of the program. */
   public abstract void reportOtherError(SourceReference reference, String message);
 
+  /** Take the next computation that was queued while not running, or null if there are none. */
+  protected Future pollComputation() {
+    return computations.poll();
+  }
+
+  /** Take the next delivery that was queued while not running, or null if there are none. */
+  protected Runnable pollDelivery() {
+    return deferred_deliveries.poll();
+  }
+
+  /** Put the URI handlers in priority order. This must be done before any computation is run. */
+  protected synchronized void prepareHandlers() {
+    Collections.sort(handlers, (a, b) -> a.getPriority() - b.getPriority());
+  }
+
   /** Perform computations until the Flabbergast program is complete or deadlocked. */
   public void run() {
-    Collections.sort(handlers, (a, b) -> a.getPriority() - b.getPriority());
-    while (!computations.isEmpty()) {
+    prepareHandlers();
+    while (true) {
+      Runnable delivery = deferred_deliveries.poll();
+      if (delivery != null) {
+        delivery.run();
+        continue;
+      }
       Future task = computations.poll();
+      if (task == null) {
+        return;
+      }
       task.compute();
     }
   }
 
+  /** Queue a computation that has been slotted. */
+  protected void schedule(Future computation) {
+    computations.offer(computation);
+  }
+
+  /**
+   * Set the number of deliveries that may be nested before further deliveries are queued.
+   *
+   * <p>Zero queues every delivery for the scheduler loop.
+   */
+  public void setMaxDeliveryDepth(int max_delivery_depth) {
+    if (max_delivery_depth < 0) {
+      throw new IllegalArgumentException("Delivery depth must be non-negative.");
+    }
+    this.max_delivery_depth = max_delivery_depth;
+  }
+
   /** Add a computation to be executed. */
   public void slot(final Future computation) {
-    if (computation instanceof Lookup && !inflight.contains(computation)) {
-      inflight.add((Lookup) computation);
+    if (computation instanceof Lookup && inflight.add((Lookup) computation)) {
       computation.listenDelayed(result -> inflight.remove(computation));
     }
-    computations.offer(computation);
+    schedule(computation);
   }
 
   public boolean verifySymbol(final SourceReference source_reference, String str) {
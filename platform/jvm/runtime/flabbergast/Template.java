@@ -1,17 +1,34 @@
 package flabbergast;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /** A Flabbergast Template, holding functions for computing attributes. */
 public class Template implements Iterable<String> {
+  /**
+   * Create the set of names overridden by a compiled instantiation. The set is created once for
+   * each place in the code, so finding the shape does not allocate a new set each time.
+   */
+  public static Set<String> overrideNames(String... names) {
+    return Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(names)));
+  }
+
   private Map<String, ComputeValue> attributes = new HashMap<String, ComputeValue>();
 
   private Frame container;
 
   private Context context;
 
+  /** The shapes of frames instantiated from this template, by the names overridden. */
+  private final Map<Set<String>, FrameShape> shapes =
+      new ConcurrentHashMap<Set<String>, FrameShape>();
+
   private SourceReference source_reference;
 
   public Template(SourceReference source_ref, Context context, Frame container) {
@@ -41,11 +58,34 @@ public class Template implements Iterable<String> {
     return context;
   }
 
+  /** The shape of a frame instantiated from this template with the given names overridden. */
+  FrameShape getShape(Set<String> override_names) {
+    FrameShape shape = shapes.get(override_names);
+    if (shape == null) {
+      shape = FrameShape.of(this, override_names);
+      shapes.put(new HashSet<String>(override_names), shape);
+    }
+    return shape;
+  }
+
   /** The stack trace at the time of creation. */
   public SourceReference getSourceReference() {
     return source_reference;
   }
 
+  /**
+   * Create an empty frame to be instantiated from this template with the given names overridden.
+   * The frame shares the shape of all the other frames instantiated with the same names.
+   */
+  public MutableFrame instantiate(
+      TaskMaster task_master,
+      SourceReference source_ref,
+      Context context,
+      Frame container,
+      Set<String> override_names) {
+    return new MutableFrame(task_master, source_ref, context, container, getShape(override_names));
+  }
+
   @Override
   public Iterator<String> iterator() {
     return attributes.keySet().iterator();
@@ -59,5 +99,6 @@ public class Template implements Iterable<String> {
       throw new IllegalStateException("Redefinition of attribute " + name + ".");
     }
     attributes.put(name, value);
+    shapes.clear();
   }
 }
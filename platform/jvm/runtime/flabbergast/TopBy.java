@@ -0,0 +1,140 @@
+package flabbergast;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Select the values in one frame with the smallest, or largest, keys with the same attribute names
+ * in another, in the order of their keys.
+ *
+ * <p>The values kept so far are held in a bounded heap whose root is the worst of them, so each new
+ * value either replaces the root or is dropped at once. Selecting k values from n takes O(n log k)
+ * time and O(k) space beyond the inputs, which are held already evaluated. Values with equal keys
+ * are kept in name order, so the result is the start of what a full sort would give.
+ */
+public class TopBy extends BaseFunctionInterop<Frame> {
+  /** Compare two keys, which are both numbers or both strings. */
+  private static int compareKeys(Object left, Object right) {
+    if (left instanceof Stringish) {
+      return ((Stringish) left).compareTo((Stringish) right);
+    }
+    if (left instanceof Long && right instanceof Long) {
+      return Long.compare((Long) left, (Long) right);
+    }
+    return Double.compare(((Number) left).doubleValue(), ((Number) right).doubleValue());
+  }
+
+  private long count;
+  private Map<String, Object> input;
+  private Object[] key_of;
+  private Map<String, Object> keys;
+  private boolean largest;
+
+  public TopBy(
+      TaskMaster task_master,
+      SourceReference source_ref,
+      Context context,
+      Frame self,
+      Frame container) {
+    super(task_master, source_ref, context, self, container);
+  }
+
+  /** Compare two values by their keys, then by name order, so that better values come first. */
+  private int compare(int left, int right) {
+    int result = compareKeys(key_of[left], key_of[right]);
+    if (largest) {
+      result = -result;
+    }
+    return result != 0 ? result : Integer.compare(left, right);
+  }
+
+  @Override
+  protected Frame computeResult() throws Exception {
+    if (count < 0) {
+      throw new IllegalArgumentException("“count” must be non-negative.");
+    }
+    Object[] values = new Object[input.size()];
+    key_of = new Object[input.size()];
+    int index = 0;
+    for (Map.Entry<String, Object> entry : input.entrySet()) {
+      Object key = keys.get(entry.getKey());
+      if (key == null) {
+        throw new IllegalArgumentException(
+            String.format("There is no key for “%s”.", entry.getKey()));
+      }
+      boolean is_number = key instanceof Long || key instanceof Double;
+      if (!is_number && !(key instanceof Stringish)) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Key for “%s” has type %s but expected Int or Float or Str.",
+                entry.getKey(), SupportFunctions.nameForClass(key.getClass())));
+      }
+      if (index > 0 && is_number == key_of[0] instanceof Stringish) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Key for “%s” has type %s but the other keys are %s.",
+                entry.getKey(),
+                SupportFunctions.nameForClass(key.getClass()),
+                is_number ? "Str" : "Int or Float"));
+      }
+      values[index] = entry.getValue();
+      key_of[index++] = key;
+    }
+
+    int[] heap = new int[(int) Math.min(count, values.length)];
+    int size = 0;
+    for (int it = 0; it < values.length; it++) {
+      if (size < heap.length) {
+        // Sift the new value up from the last leaf.
+        int child = size++;
+        while (child > 0 && compare(heap[(child - 1) / 2], it) < 0) {
+          heap[child] = heap[(child - 1) / 2];
+          child = (child - 1) / 2;
+        }
+        heap[child] = it;
+      } else if (size > 0 && compare(it, heap[0]) < 0) {
+        // Replace the worst value kept and sift the new one down.
+        int parent = 0;
+        while (2 * parent + 1 < size) {
+          int child = 2 * parent + 1;
+          if (child + 1 < size && compare(heap[child + 1], heap[child]) > 0) {
+            child++;
+          }
+          if (compare(heap[child], it) <= 0) {
+            break;
+          }
+          heap[parent] = heap[child];
+          parent = child;
+        }
+        heap[parent] = it;
+      }
+    }
+
+    Integer[] order = new Integer[size];
+    for (int it = 0; it < size; it++) {
+      order[it] = heap[it];
+    }
+    Arrays.sort(order, this::compare);
+    MutableFrame output = new MutableFrame(task_master, source_reference, context, self);
+    for (int it = 0; it < order.length; it++) {
+      output.set(it + 1, values[order[it]]);
+    }
+    return output;
+  }
+
+  @Override
+  protected void setup() {
+    ListSink<Object> args_lookup = findAll(Object.class, x -> input = x);
+    args_lookup.allowDefault(false, null);
+    args_lookup.lookup("args");
+    ListSink<Object> keys_lookup = findAll(Object.class, x -> keys = x);
+    keys_lookup.allowDefault(false, null);
+    keys_lookup.lookup("keys");
+    Sink<Long> count_lookup = find(Long.class, x -> count = x);
+    count_lookup.allowDefault(false, null);
+    count_lookup.lookup("count");
+    Sink<Boolean> largest_lookup = find(Boolean.class, x -> largest = x);
+    largest_lookup.allowDefault(false, null);
+    largest_lookup.lookup("largest");
+  }
+}
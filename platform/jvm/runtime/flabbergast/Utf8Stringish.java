@@ -0,0 +1,301 @@
+package flabbergast;
+
+import flabbergast.RamblingIterator.GetNext;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Stack;
+
+/**
+ * A string read as UTF-8 bytes.
+ *
+ * <p>Most data read from outside is ASCII, which takes half the space as bytes that it does as a
+ * Java string. An ASCII string keeps only its bytes, and comparing, searching, slicing and writing
+ * it work on the bytes directly. Any other string is decoded once and keeps only the Java string,
+ * along with a {@link CodepointIndex} if it has surrogate pairs, so positions in it are found
+ * without counting from the start. The lengths are counted once when the string is created.
+ */
+public class Utf8Stringish extends Stringish {
+  /** The characters of an ASCII string as a view over its bytes. */
+  private static final class AsciiChars implements CharSequence {
+    private final byte[] bytes;
+    private final int start;
+    private final int end;
+
+    AsciiChars(byte[] bytes, int start, int end) {
+      this.bytes = bytes;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    public char charAt(int index) {
+      return (char) bytes[start + index];
+    }
+
+    @Override
+    public int length() {
+      return end - start;
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return new AsciiChars(bytes, this.start + start, this.start + end);
+    }
+
+    @Override
+    public String toString() {
+      return new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+  }
+
+  /** The bytes, which are only kept if the string is ASCII. */
+  private final byte[] bytes;
+
+  /** The decoded string, which is only kept if the string is not ASCII. */
+  private final String str;
+
+  /** The codepoint index, which is only built if needed and the string has surrogate pairs. */
+  private CodepointIndex index;
+
+  private final long num_codepoints;
+  private final long utf16_length;
+  private final long utf8_length;
+
+  /**
+   * Create a string from UTF-8 bytes. The array must not be modified afterwards. Malformed
+   * sequences are replaced, as {@link String#String(byte[], java.nio.charset.Charset)} does.
+   */
+  public Utf8Stringish(byte[] bytes) {
+    long codepoints = 0;
+    long utf16 = 0;
+    boolean ascii = true;
+    int it = 0;
+    while (it < bytes.length) {
+      int lead = bytes[it] & 0xFF;
+      int length;
+      if (lead < 0x80) {
+        length = 1;
+      } else if (lead >= 0xC2 && lead < 0xE0) {
+        length = 2;
+      } else if (lead >= 0xE0 && lead < 0xF0) {
+        length = 3;
+      } else if (lead >= 0xF0 && lead < 0xF5) {
+        length = 4;
+      } else {
+        break;
+      }
+      if (length > 1) {
+        ascii = false;
+        if (!isWellFormed(bytes, it, length)) {
+          break;
+        }
+      }
+      it += length;
+      codepoints++;
+      utf16 += length == 4 ? 2 : 1;
+    }
+    long utf8 = bytes.length;
+    String str = null;
+    if (it < bytes.length) {
+      // Let the decoder choose the replacements, then count the repaired string.
+      str = new String(bytes, StandardCharsets.UTF_8);
+      codepoints = str.codePointCount(0, str.length());
+      utf16 = str.length();
+      utf8 = str.getBytes(StandardCharsets.UTF_8).length;
+    } else if (!ascii) {
+      str = new String(bytes, StandardCharsets.UTF_8);
+    }
+    this.bytes = str == null ? bytes : null;
+    this.str = str;
+    this.num_codepoints = codepoints;
+    this.utf16_length = utf16;
+    this.utf8_length = utf8;
+  }
+
+  private Utf8Stringish(byte[] bytes, int length) {
+    this.bytes = bytes;
+    this.str = null;
+    this.num_codepoints = length;
+    this.utf16_length = length;
+    this.utf8_length = length;
+  }
+
+  public Utf8Stringish(String str) {
+    boolean ascii = true;
+    for (int it = 0; ascii && it < str.length(); it++) {
+      ascii = str.charAt(it) < 0x80;
+    }
+    this.bytes = ascii ? str.getBytes(StandardCharsets.ISO_8859_1) : null;
+    this.str = ascii ? null : str;
+    this.num_codepoints = ascii ? str.length() : str.codePointCount(0, str.length());
+    this.utf16_length = str.length();
+    this.utf8_length = ascii ? str.length() : str.getBytes(StandardCharsets.UTF_8).length;
+  }
+
+  /** Create a string from bytes known to be ASCII. The array must not be modified afterwards. */
+  static Utf8Stringish ascii(byte[] bytes) {
+    return new Utf8Stringish(bytes, bytes.length);
+  }
+
+  private static boolean isWellFormed(byte[] bytes, int start, int length) {
+    if (start + length > bytes.length) {
+      return false;
+    }
+    for (int it = start + 1; it < start + length; it++) {
+      if ((bytes[it] & 0xC0) != 0x80) {
+        return false;
+      }
+    }
+    int second = bytes[start + 1] & 0xFF;
+    switch (bytes[start] & 0xFF) {
+        // Reject overlong encodings, surrogates and codepoints past U+10FFFF.
+      case 0xE0:
+        return second >= 0xA0;
+      case 0xED:
+        return second < 0xA0;
+      case 0xF0:
+        return second >= 0x90;
+      case 0xF4:
+        return second < 0x90;
+      default:
+        return true;
+    }
+  }
+
+  @Override
+  void appendCodepoints(StringBuilder builder, long start, long end) {
+    if (bytes == null) {
+      super.appendCodepoints(builder, start, end);
+      return;
+    }
+    for (int it = (int) start; it < end; it++) {
+      builder.append((char) bytes[it]);
+    }
+  }
+
+  @Override
+  CharSequence chars() {
+    return bytes == null ? str : new AsciiChars(bytes, 0, bytes.length);
+  }
+
+  @Override
+  long codepointToUtf16(long codepoint) {
+    if (num_codepoints == utf16_length) {
+      return codepoint;
+    }
+    return getIndex().toUtf16(str, codepoint);
+  }
+
+  @Override
+  int getCount() {
+    return 1;
+  }
+
+  private CodepointIndex getIndex() {
+    // Racing threads build the same index, so the last one written is as good as any.
+    CodepointIndex current = index;
+    if (current == null) {
+      current = CodepointIndex.create(str, num_codepoints);
+      index = current;
+    }
+    return current;
+  }
+
+  @Override
+  public long getLength() {
+    return num_codepoints;
+  }
+
+  @Override
+  public long getUtf16Length() {
+    return utf16_length;
+  }
+
+  @Override
+  public long getUtf8Length() {
+    return utf8_length;
+  }
+
+  @Override
+  int indexOf(String target, int from, boolean backward) {
+    if (bytes == null) {
+      return super.indexOf(target, from, backward);
+    }
+    // A character outside ASCII never matches a byte, so it needs no special case.
+    int last = bytes.length - target.length();
+    for (int it = backward ? Math.min(from, last) : Math.max(from, 0);
+        backward ? it >= 0 : it <= last;
+        it += backward ? -1 : 1) {
+      if (matches(target, it)) {
+        return it;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public Iterator<String> iterator() {
+    return new Iterator<String>() {
+      boolean state = true;
+
+      @Override
+      public boolean hasNext() {
+        return state;
+      }
+
+      @Override
+      public String next() {
+        state = false;
+        return Utf8Stringish.this.toString();
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  @Override
+  public String ramblingNext(Stack<GetNext<String>> stack) {
+    return toString();
+  }
+
+  private boolean matches(String target, int offset) {
+    for (int it = 0; it < target.length(); it++) {
+      if (bytes[offset + it] != target.charAt(it)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return bytes == null ? str : new String(bytes, StandardCharsets.ISO_8859_1);
+  }
+
+  /** The UTF-8 bytes, which, for an ASCII string, are shared and must not be modified. */
+  @Override
+  public byte[] toUtf8() {
+    return bytes == null ? str.getBytes(StandardCharsets.UTF_8) : bytes;
+  }
+
+  @Override
+  void writeUtf8Pieces(Utf8Writer writer) throws IOException {
+    if (bytes == null) {
+      writer.writeChars(str);
+    } else {
+      writer.writeBytes(bytes);
+    }
+  }
+
+  @Override
+  long utf16ToCodepoint(long offset) {
+    if (num_codepoints == utf16_length) {
+      return offset;
+    }
+    return getIndex().toCodepoint(str, (int) offset);
+  }
+}
@@ -0,0 +1,107 @@
+package flabbergast;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the pieces of a string to a channel as UTF-8.
+ *
+ * <p>Each thread keeps one writer, so the encoder and the direct output buffer are created once and
+ * reused by every string written on that thread. Pieces held as Java strings are encoded into the
+ * buffer; pieces already held as UTF-8 are copied without decoding.
+ */
+final class Utf8Writer {
+  /** The size of the buffer used to encode strings for output. */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final ThreadLocal<Utf8Writer> WRITERS =
+      ThreadLocal.withInitial(Utf8Writer::new);
+
+  /** Write a whole string to a channel. */
+  static void write(Stringish str, WritableByteChannel channel) throws IOException {
+    Utf8Writer writer = WRITERS.get();
+    writer.channel = channel;
+    try {
+      str.writeUtf8Pieces(writer);
+      writer.endChars();
+      writer.drain();
+    } finally {
+      writer.carry = null;
+      writer.channel = null;
+      writer.encoder.reset();
+      writer.output.clear();
+    }
+  }
+
+  /** A surrogate pair split between two pieces is carried over to the next piece. */
+  private CharBuffer carry;
+
+  private WritableByteChannel channel;
+
+  private final CharsetEncoder encoder =
+      StandardCharsets.UTF_8
+          .newEncoder()
+          .onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+  private final ByteBuffer output = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+  private Utf8Writer() {}
+
+  private void drain() throws IOException {
+    output.flip();
+    while (output.hasRemaining()) {
+      channel.write(output);
+    }
+    output.clear();
+  }
+
+  private void encode(CharBuffer input, boolean end) throws IOException {
+    while (encoder.encode(input, output, end).isOverflow()) {
+      drain();
+    }
+  }
+
+  /** Finish the characters written so far, replacing a surrogate left without its pair. */
+  private void endChars() throws IOException {
+    encode(carry == null ? CharBuffer.allocate(0) : carry, true);
+    while (encoder.flush(output) == CoderResult.OVERFLOW) {
+      drain();
+    }
+    encoder.reset();
+    carry = null;
+  }
+
+  /** Write bytes that are already UTF-8. */
+  void writeBytes(byte[] bytes) throws IOException {
+    if (carry != null) {
+      endChars();
+    }
+    if (bytes.length <= output.remaining()) {
+      output.put(bytes);
+      return;
+    }
+    drain();
+    ByteBuffer input = ByteBuffer.wrap(bytes);
+    while (input.hasRemaining()) {
+      channel.write(input);
+    }
+  }
+
+  /** Encode a piece held as a Java string. */
+  void writeChars(String piece) throws IOException {
+    CharBuffer input = CharBuffer.wrap(piece);
+    if (carry != null) {
+      input = CharBuffer.allocate(carry.remaining() + piece.length()).put(carry).put(piece);
+      input.flip();
+    }
+    encode(input, false);
+    carry = input.hasRemaining() ? input : null;
+  }
+}
@@ -1,7 +1,7 @@
 package flabbergast;
 
 public class CheckResult extends Future {
-  private boolean success;
+  private volatile boolean success;
 
   private Class<? extends Future> test_target;
 
@@ -30,6 +30,14 @@ public class TestHarness {
     return new File(buffer.toString());
   }
 
+  /** Run a compiled test to completion and check that its value is true. */
+  private static boolean check(TaskMaster task_master, Class<? extends Future> test_type) {
+    CheckResult tester = new CheckResult(task_master, test_type);
+    tester.slot();
+    task_master.run();
+    return tester.getSuccess();
+  }
+
   public static boolean doTests(File root, String type, Ptr<Integer> id) throws IOException {
     boolean all_succeeded = true;
     if (!root.exists()) {
@@ -55,6 +63,10 @@ public class TestHarness {
     TaskMaster task_master = new TestTaskMaster();
     task_master.addUriHandler(BuiltInLibraries.INSTANCE);
     task_master.addUriHandler(StandardInterop.INSTANCE);
+    // The working tests are run again on several threads, which must not change their results.
+    ParallelTaskMaster parallel_task_master = new TestParallelTaskMaster();
+    parallel_task_master.addUriHandler(BuiltInLibraries.INSTANCE);
+    parallel_task_master.addUriHandler(StandardInterop.INSTANCE);
     for (File file : alwaysIterable(new File(root, "errors").listFiles(new OnlySourceFiles()))) {
       boolean success;
       try {
@@ -68,10 +80,7 @@ public class TestHarness {
             parser.parseFile(collector, compiler.getCompilationUnit(), "Test" + test_id);
         success = collector.isAnalyseDirty();
         if (!success && test_type != null) {
-          CheckResult tester = new CheckResult(task_master, test_type);
-          tester.slot();
-          task_master.run();
-          success = !tester.getSuccess();
+          success = !check(task_master, test_type);
         }
       } catch (Exception e) {
         success = false;
@@ -81,6 +90,7 @@ public class TestHarness {
     }
     for (File file : alwaysIterable(new File(root, "working").listFiles(new OnlySourceFiles()))) {
       boolean success;
+      boolean parallel_matches = true;
       try {
         DirtyCollector collector = new DirtyCollector();
         DynamicCompiler compiler = new DynamicCompiler(collector);
@@ -91,17 +101,18 @@ public class TestHarness {
             parser.parseFile(collector, compiler.getCompilationUnit(), "Test" + test_id);
         success = !collector.isAnalyseDirty() && !collector.isParseDirty();
         if (success && test_type != null) {
-          CheckResult tester = new CheckResult(task_master, test_type);
-          tester.slot();
-          task_master.run();
-          success = tester.getSuccess();
+          success = check(task_master, test_type);
+          parallel_matches = check(parallel_task_master, test_type) == success;
         }
       } catch (Exception e) {
         success = false;
       }
       System.err.printf("%s %s %s %s\n", success ? "----" : "FAIL", "W", type, file.getName());
-      all_succeeded &= success;
+      System.err.printf(
+          "%s %s %s %s\n", parallel_matches ? "----" : "FAIL", "P", type, file.getName());
+      all_succeeded &= success && parallel_matches;
     }
+    parallel_task_master.shutdown();
     return all_succeeded;
   }
 
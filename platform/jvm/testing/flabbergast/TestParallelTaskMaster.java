@@ -0,0 +1,9 @@
+package flabbergast;
+
+public class TestParallelTaskMaster extends ParallelTaskMaster {
+  @Override
+  public void reportExternalError(String uri, LibraryFailure failure) {}
+
+  @Override
+  public void reportOtherError(SourceReference reference, String message) {}
+}